@@ -28,6 +28,7 @@ public class DataInitializer implements CommandLineRunner {
     private final com.yow.access.repositories.UserRoleResourceRepository urrRepository;
     private final com.yow.access.repositories.TenantRepository tenantRepository;
     private final PasswordEncoder passwordEncoder;
+    private final com.yow.access.services.rbac.RoleCatalog roleCatalog;
 
     @Autowired
     public DataInitializer(
@@ -37,7 +38,8 @@ public class DataInitializer implements CommandLineRunner {
             com.yow.access.repositories.ResourceRepository resourceRepository,
             com.yow.access.repositories.UserRoleResourceRepository urrRepository,
             com.yow.access.repositories.TenantRepository tenantRepository,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            com.yow.access.services.rbac.RoleCatalog roleCatalog
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
@@ -46,6 +48,7 @@ public class DataInitializer implements CommandLineRunner {
         this.urrRepository = urrRepository;
         this.tenantRepository = tenantRepository;
         this.passwordEncoder = passwordEncoder;
+        this.roleCatalog = roleCatalog;
     }
 
     @Override
@@ -78,6 +81,7 @@ public class DataInitializer implements CommandLineRunner {
         
         createPermissionIfNotFound((short) 20, "ASSIGN_ROLE", "Assign roles to users");
         createPermissionIfNotFound((short) 21, "REMOVE_ROLE", "Remove roles from users");
+        createPermissionIfNotFound((short) 22, "ROLE_UPDATE", "Update custom roles");
         
         createPermissionIfNotFound((short) 30, "USER_CREATE", "Create new users");
         createPermissionIfNotFound((short) 31, "USER_READ", "View users");
@@ -87,6 +91,9 @@ public class DataInitializer implements CommandLineRunner {
         // 3. Assign All Permissions to TENANT_ADMIN
         assignAllPermissionsToRole("TENANT_ADMIN");
         assignAllPermissionsToRole("ADMIN"); // Global admin gets everything too
+
+        // 4. Recompile the role catalog against the seeded permissions
+        roleCatalog.refresh();
     }
 
     private void createRoleIfNotFound(Short id, String name, String scope) {
@@ -156,7 +163,8 @@ public class DataInitializer implements CommandLineRunner {
 
             // Créer une ressource système racine
             com.yow.access.entities.Resource systemRoot = com.yow.access.entities.ResourceFactory.createRootResource(systemTenant, "System Group");
-            resourceRepository.save(systemRoot);
+            resourceRepository.saveAndFlush(systemRoot);
+            resourceRepository.insertRootPath(systemRoot.getId());
 
             // Assigner le rôle ADMIN à l'utilisateur admin sur la ressource système
             com.yow.access.entities.Role adminRole = roleRepository.findByName("ADMIN")
@@ -0,0 +1,117 @@
+package com.yow.access.config.security;
+
+import com.yow.access.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password hashing and verification (BCrypt) on a dedicated pool sized to the
+ * CPUs, so a burst of logins cannot pin every servlet thread.
+ * <ul>
+ *   <li>The queue is bounded: when it is full the call fails at once with
+ *   {@link PasswordHashingBusyException} (503 + Retry-After) instead of
+ *   piling up requests.</li>
+ *   <li>A caller waits at most {@code timeout} for its turn and result.</li>
+ * </ul>
+ * Callers must not hold a transaction (hence a pooled connection) while
+ * hashing. Metrics: {@code auth.password.queue} (waiting tasks),
+ * {@code auth.password.hash} (time on the pool, by operation) and
+ * {@code auth.password.rejected}.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout:PT5S}") Duration timeout
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        // 0 : un thread par cœur, le hachage étant purement CPU
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> Thread.ofPlatform()
+                        .name("password-hash-" + sequence.incrementAndGet())
+                        .daemon()
+                        .unstarted(task),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches").register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(() -> matchesTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, passwordHash)));
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Tâche encore en file : elle ne prendra pas de thread pour rien
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -21,5 +21,6 @@ public final class Permissions {
     public static final String USER_DELETE     = "USER_DELETE";
     public static final String ASSIGN_ROLE     = "ASSIGN_ROLE";
     public static final String REMOVE_ROLE     = "REMOVE_ROLE";
+    public static final String ROLE_UPDATE     = "ROLE_UPDATE";
 }
 
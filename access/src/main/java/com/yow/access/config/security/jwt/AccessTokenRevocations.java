@@ -0,0 +1,156 @@
+package com.yow.access.config.security.jwt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Revoked access tokens (by {@code jti}), checked on every request without
+ * touching the database.
+ * <ul>
+ *   <li>Revoked ids are stored in {@code revoked_access_token} until the token
+ *   expires, and added to an in-memory {@link BloomFilter}.</li>
+ *   <li>A token absent from the filter is not revoked; only a hit (revoked,
+ *   or a false positive at {@code false-positive-rate}) is confirmed in
+ *   the table.</li>
+ *   <li>The filter is rebuilt from the table at startup and every
+ *   {@code rebuild-cron} (dropping expired ids), and picks up revocations
+ *   made by other instances every {@code poll-interval}.</li>
+ * </ul>
+ */
+@Component
+public class AccessTokenRevocations {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenRevocations.class);
+
+    // Chevauchement des relectures : horloges des instances légèrement décalées
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private final AtomicInteger added = new AtomicInteger();
+    private volatile Instant polledUpTo = Instant.EPOCH;
+
+    public AccessTokenRevocations(
+            JdbcTemplate jdbcTemplate,
+            @Value("${jwt.revocation.expected-size:100000}") int expectedRevocations,
+            @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Revokes the access token {@code tokenId} until {@code expiresAt}.
+     */
+    public void revoke(UUID tokenId, Instant expiresAt) {
+        jdbcTemplate.update("""
+                INSERT INTO revoked_access_token (token_id, expires_at, revoked_at) VALUES (?, ?, ?)
+                ON CONFLICT (token_id) DO NOTHING
+                """, tokenId, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+        add(tokenId);
+    }
+
+    public boolean isRevoked(UUID tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        // Présent dans le filtre : révoqué ou faux positif, la table tranche
+        Boolean revoked = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM revoked_access_token WHERE token_id = ?)", Boolean.class, tokenId);
+        return Boolean.TRUE.equals(revoked);
+    }
+
+    /* =========================================================
+       CHARGEMENT ET RELECTURES
+       ========================================================= */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${jwt.revocation.rebuild-cron:0 0 * * * *}")
+    public void rebuild() {
+        Instant startedAt = Instant.now();
+        try {
+            jdbcTemplate.update("DELETE FROM revoked_access_token WHERE expires_at < ?", Timestamp.from(startedAt));
+            List<UUID> ids = new ArrayList<>();
+            jdbcTemplate.query(
+                    "SELECT token_id FROM revoked_access_token",
+                    rs -> {
+                        ids.add(rs.getObject("token_id", UUID.class));
+                    }
+            );
+
+            // Marge pour les révocations à venir avant le prochain recalcul
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, ids.size() * 2), falsePositiveRate);
+            ids.forEach(rebuilt::add);
+            filter = rebuilt;
+            added.set(ids.size());
+            log.info("Access token revocation filter rebuilt with {} ids", ids.size());
+
+            // Révocations faites pendant la relecture : reprises dans le nouveau filtre
+            pollSince(startedAt.minus(POLL_OVERLAP));
+        } catch (DataAccessException e) {
+            // Filtre précédent conservé ; nouvelle tentative au prochain passage
+            log.error("Access token revocation filter rebuild failed", e);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${jwt.revocation.poll-interval:PT10S}",
+            fixedDelayString = "${jwt.revocation.poll-interval:PT10S}"
+    )
+    public void poll() {
+        try {
+            pollSince(polledUpTo.minus(POLL_OVERLAP));
+        } catch (DataAccessException e) {
+            log.warn("Access token revocation poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void pollSince(Instant since) {
+        Instant[] latest = {polledUpTo};
+        jdbcTemplate.query(
+                "SELECT token_id, revoked_at FROM revoked_access_token WHERE revoked_at > ?",
+                rs -> {
+                    add(rs.getObject("token_id", UUID.class));
+                    Instant revokedAt = rs.getTimestamp("revoked_at").toInstant();
+                    if (revokedAt.isAfter(latest[0])) {
+                        latest[0] = revokedAt;
+                    }
+                },
+                Timestamp.from(since)
+        );
+        polledUpTo = latest[0];
+    }
+
+    private void add(UUID tokenId) {
+        BloomFilter current = filter;
+        current.add(tokenId);
+        if (added.incrementAndGet() == current.capacity()) {
+            log.warn("Access token revocation filter over capacity ({}), false positives will rise until the next rebuild",
+                    current.capacity());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.yow.access.config.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yow.access.entities.AppUser;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded cache of the authenticated {@link AppUser} snapshot, keyed by userId,
+ * so authenticating a request costs no SQL once the user has been seen.
+ * <ul>
+ *   <li>Entries are dropped after commit by {@link UserAccessChangedEvent}
+ *   (enable/disable, password reset, role changes). Enable/disable and
+ *   password reset also bump the user's security stamp. Role changes do not:
+ *   resource permissions come from the bindings at once, and the role claims
+ *   of the token catch up at the next refresh.</li>
+ *   <li>A token carrying a newer stamp than the cached snapshot (bumped on
+ *   another instance) forces a reload, so the snapshot never lags behind a
+ *   token.</li>
+ * </ul>
+ * On other instances a snapshot can stay stale for at most {@code ttl}.
+ * Stats are published as {@code cache.*} metrics with {@code cache=auth.principals}.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, AppUser> cache;
+
+    public AuthenticatedPrincipalCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl:PT1M}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principals");
+    }
+
+    /**
+     * Snapshot of the user, at least as recent as {@code tokenStamp}; null if
+     * the user no longer exists.
+     */
+    public AppUser get(UUID userId, int tokenStamp) {
+        AppUser user = cache.get(userId, this::load);
+        if (user != null && user.getSecurityStamp() < tokenStamp) {
+            // Stamp incrémenté ailleurs : le cache est en retard sur le jeton
+            cache.invalidate(userId);
+            user = cache.get(userId, this::load);
+        }
+        return user;
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        cache.invalidate(event.userId());
+    }
+
+    private AppUser load(UUID userId) {
+        // null n'est pas mis en cache : un utilisateur inconnu est relu à chaque fois
+        return userRepository.findById(userId).orElse(null);
+    }
+}
@@ -1,7 +1,6 @@
 package com.yow.access.config.security.jwt;
 
 import com.yow.access.entities.AppUser;
-import com.yow.access.repositories.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,11 +20,17 @@ import java.util.UUID;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
-
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    private final AuthenticatedPrincipalCache principalCache;
+    private final AccessTokenRevocations revocations;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            AuthenticatedPrincipalCache principalCache,
+            AccessTokenRevocations revocations
+    ) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.revocations = revocations;
     }
 
     @Override
@@ -35,6 +40,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Endpoints publics (pas besoin d'authentification)
         boolean isPublicAuthEndpoint =
                 path.equals("/api/auth/login") ||
+                path.equals("/api/auth/refresh") ||
                 path.equals("/api/auth/activate") ||
                 path.equals("/api/auth/forgot-password") ||
                 path.equals("/api/auth/reset-password") ||
@@ -43,7 +49,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return isPublicAuthEndpoint ||
                 path.startsWith("/swagger-ui") ||
                 path.startsWith("/v3/api-docs") ||
-                path.startsWith("/actuator");
+                path.startsWith("/actuator/health"); // /actuator/metrics exige un jeton ADMIN
     }
 
     @Override
@@ -62,21 +68,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(7);
 
-        if (!jwtService.isTokenValid(token)) {
+        // Une seule vérification (signature + expiration) ; jeton récent servi depuis le cache
+        VerifiedToken verified = jwtService.verify(token).orElse(null);
+        if (verified == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Jeton révoqué (déconnexion) : filtre de Bloom en mémoire, base seulement si présent
+        if (verified.tokenId() != null && revocations.isRevoked(verified.tokenId())) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        UUID userId = jwtService.extractUserId(token);
-        AppUser user = userRepository.findById(userId).orElse(null);
+        UUID userId = verified.userId();
+        AppUser user = principalCache.get(userId, verified.securityStamp());
 
-        if (user == null || !user.isEnabled()) {
+        // Stamp différent : compte désactivé, mot de passe ou rôles changés depuis l'émission
+        if (user == null || !user.isEnabled() || user.getSecurityStamp() != verified.securityStamp()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        java.util.List<String> roles = jwtService.extractRoles(token);
-        
+        java.util.List<String> roles = verified.roles();
+
         java.util.List<org.springframework.security.core.GrantedAuthority> authorities;
         if (roles != null) {
             authorities = roles.stream()
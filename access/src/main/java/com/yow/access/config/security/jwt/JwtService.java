@@ -1,6 +1,10 @@
 package com.yow.access.config.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,36 +12,90 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Issues and verifies short-lived access tokens ({@code jwt.expiration}), each
+ * with its own id ("jti") so it can be revoked before it expires.
+ * The signing key and the parser are built once. {@link #verify(String)} checks
+ * a token with a single signature verification and JSON parse, then keeps the
+ * result in a bounded cache keyed by the token's SHA-256 until the token
+ * expires, so repeated requests with the same token skip both.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    static final String SECURITY_STAMP_CLAIM = "sv";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final Cache<String, VerifiedToken> verified;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public JwtService(
+            @Value("${jwt.secret}") String jwtSecret,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.cache.max-size:10000}") long cacheSize
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String key, VerifiedToken token) -> untilExpiry(token)))
+                .build();
     }
 
-    public String generateToken(UUID userId, String email, java.util.List<String> roles) {
+    public String generateToken(UUID userId, String email, java.util.List<String> roles, int securityStamp) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userId.toString())
                 .claim("email", email)
                 .claim("roles", roles)
+                .claim(SECURITY_STAMP_CLAIM, securityStamp)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * The verified claims of {@code token}, or empty if its signature, format
+     * or expiry is not valid.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached);
+        }
+
+        VerifiedToken parsed;
+        try {
+            parsed = toVerifiedToken(extractAllClaims(token));
+        } catch (RuntimeException e) {
+            // Signature, format ou claims invalides : jeton refusé
+            return Optional.empty();
+        }
+        verified.put(key, parsed);
+        return Optional.of(parsed);
+    }
+
+    public Duration getExpiration() {
+        return Duration.ofMillis(jwtExpiration);
+    }
+
     public UUID extractUserId(String token) {
         Claims claims = extractAllClaims(token);
         return UUID.fromString(claims.getSubject());
@@ -55,19 +113,43 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        // Un jeton sans expiration n'est pas accepté
+        if (claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Token without expiration");
+        }
+        // Jetons émis avant l'introduction du claim : stamp initial
+        Integer securityStamp = claims.get(SECURITY_STAMP_CLAIM, Integer.class);
+        return new VerifiedToken(
+                claims.getId() != null ? UUID.fromString(claims.getId()) : null,
+                UUID.fromString(claims.getSubject()),
+                claims.get("email", String.class),
+                claims.get("roles", List.class),
+                securityStamp != null ? securityStamp : 0,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    private static Duration untilExpiry(VerifiedToken token) {
+        Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    // Clé de cache : empreinte du jeton, jamais le jeton lui-même
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.yow.access.config.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claims of a token whose signature and expiry have been checked, parsed once.
+ * {@code securityStamp} is the user's security stamp when it was issued ("sv");
+ * {@code tokenId} is its "jti", used for revocation (null for older tokens).
+ */
+public record VerifiedToken(
+        UUID tokenId,
+        UUID userId,
+        String email,
+        List<String> roles,
+        int securityStamp,
+        Instant expiresAt
+) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.yow.access.config.security.ratelimit;
+
+import com.yow.access.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles login and password-reset requests per account (email) and per
+ * client IP, before any database query or password hash.
+ * The IP bucket is checked first, so a flood from one address does not lock
+ * the accounts it targets. Rejections throw {@link TooManyAttemptsException}
+ * (429 + Retry-After) and are counted in {@code auth.rate_limit.rejected}.
+ * The client IP is the servlet remote address; behind a proxy, enable
+ * {@code server.forward-headers-strategy}.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final TokenBucketLimiter loginPerAccount;
+    private final TokenBucketLimiter loginPerIp;
+    private final TokenBucketLimiter resetPerAccount;
+    private final TokenBucketLimiter resetPerIp;
+    private final Counter loginRejected;
+    private final Counter resetRejected;
+
+    public AuthRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${security.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${security.rate-limit.login.per-account.burst:5}") int loginAccountBurst,
+            @Value("${security.rate-limit.login.per-account.interval:PT12S}") Duration loginAccountInterval,
+            @Value("${security.rate-limit.login.per-ip.burst:50}") int loginIpBurst,
+            @Value("${security.rate-limit.login.per-ip.interval:PT1S}") Duration loginIpInterval,
+            @Value("${security.rate-limit.password-reset.per-account.burst:3}") int resetAccountBurst,
+            @Value("${security.rate-limit.password-reset.per-account.interval:PT5M}") Duration resetAccountInterval,
+            @Value("${security.rate-limit.password-reset.per-ip.burst:10}") int resetIpBurst,
+            @Value("${security.rate-limit.password-reset.per-ip.interval:PT30S}") Duration resetIpInterval
+    ) {
+        this.loginPerAccount = new TokenBucketLimiter(loginAccountBurst, loginAccountInterval, maxKeys);
+        this.loginPerIp = new TokenBucketLimiter(loginIpBurst, loginIpInterval, maxKeys);
+        this.resetPerAccount = new TokenBucketLimiter(resetAccountBurst, resetAccountInterval, maxKeys);
+        this.resetPerIp = new TokenBucketLimiter(resetIpBurst, resetIpInterval, maxKeys);
+        this.loginRejected = meterRegistry.counter("auth.rate_limit.rejected", "endpoint", "login");
+        this.resetRejected = meterRegistry.counter("auth.rate_limit.rejected", "endpoint", "forgot-password");
+    }
+
+    public void checkLogin(String email, String clientIp) {
+        check(loginPerIp, loginPerAccount, loginRejected, email, clientIp);
+    }
+
+    public void checkPasswordReset(String email, String clientIp) {
+        check(resetPerIp, resetPerAccount, resetRejected, email, clientIp);
+    }
+
+    private static void check(
+            TokenBucketLimiter perIp,
+            TokenBucketLimiter perAccount,
+            Counter rejected,
+            String email,
+            String clientIp
+    ) {
+        long waitNanos = clientIp != null ? perIp.tryAcquire(clientIp) : 0;
+        if (waitNanos == 0 && email != null) {
+            waitNanos = perAccount.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+        if (waitNanos > 0) {
+            rejected.increment();
+            // Arrondi à la seconde supérieure
+            throw new TooManyAttemptsException(TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.yow.access.config.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per key ({@code burst} tokens, one more every {@code interval}),
+ * without locks.
+ * <ul>
+ *   <li>Each bucket is a single {@link AtomicLong}: the time at which it will be
+ *   full again (GCRA form of the token bucket), updated by CAS.</li>
+ *   <li>Buckets live in a bounded Caffeine map (concurrent, internally striped)
+ *   and expire after {@code burst * interval} without use: by then they are
+ *   full, so dropping them changes nothing.</li>
+ * </ul>
+ * A call costs a map lookup and a CAS, whether it is allowed or rejected.
+ */
+public final class TokenBucketLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketLimiter(int burst, Duration interval, long maxKeys) {
+        this(burst, interval, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int burst, Duration interval, long maxKeys, LongSupplier nanoClock) {
+        if (burst < 1 || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("burst must be >= 1 and interval > 0");
+        }
+        this.intervalNanos = interval.toNanos();
+        this.burstNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key}.
+     *
+     * @return 0 if allowed, otherwise the delay in nanoseconds before a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            // Un seau plein a fullAt <= now ; chaque jeton consommé le repousse d'un intervalle
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -1,85 +1,214 @@
 package com.yow.access.controllers;
 
+import com.yow.access.dto.AuditAggregateBucket;
+import com.yow.access.dto.AuditLogEntryResponse;
+import com.yow.access.dto.AuditLogFilter;
+import com.yow.access.dto.AuditLogPage;
 import com.yow.access.entities.AppUser;
-import com.yow.access.entities.AuditLog;
-import com.yow.access.repositories.AuditLogRepository;
+import com.yow.access.entities.UserRoleResource;
 import com.yow.access.repositories.UserRoleResourceRepository;
+import com.yow.access.services.AuditAggregationService;
+import com.yow.access.services.AuditLogExporter;
+import com.yow.access.services.AuditLogQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/audit-logs")
 public class AuditLogController {
 
-    private final AuditLogRepository auditLogRepository;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final AuditLogQueryService auditLogQueryService;
+    private final AuditLogExporter auditLogExporter;
+    private final AuditAggregationService auditAggregationService;
     private final UserRoleResourceRepository urrRepository;
 
-    public AuditLogController(AuditLogRepository auditLogRepository, UserRoleResourceRepository urrRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditLogController(
+            AuditLogQueryService auditLogQueryService,
+            AuditLogExporter auditLogExporter,
+            AuditAggregationService auditAggregationService,
+            UserRoleResourceRepository urrRepository
+    ) {
+        this.auditLogQueryService = auditLogQueryService;
+        this.auditLogExporter = auditLogExporter;
+        this.auditAggregationService = auditAggregationService;
         this.urrRepository = urrRepository;
     }
 
+    /**
+     * One page of audit entries, newest first, filtered server-side;
+     * ?subtreeOf= restricts it to what happened under a resource (incident
+     * reviews of a department). The body keeps its list shape; the cursor of the next page (if any) is
+     * returned in the X-Next-Cursor header and passed back as ?after=.
+     */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAuditLogs(
+    public ResponseEntity<List<AuditLogEntryResponse>> getAuditLogs(
+            @AuthenticationPrincipal AppUser currentUser,
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String outcome,
+            @RequestParam(required = false) String targetType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) UUID subtreeOf,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + AuditLogQueryService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        AuditLogFilter filter = scope(
+                currentUser,
+                new AuditLogFilter(tenantId, userId, action, outcome, targetType, from, to, subtreeOf)
+        );
+        if (filter == null) {
+            return ResponseEntity.status(403).build();
+        }
+
+        AuditLogPage page = auditLogQueryService.findPage(filter, after, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Full export of the visible audit entries, oldest first, streamed from a
+     * database cursor as CSV or NDJSON (?format=csv|ndjson), gzip-compressed
+     * on ?gzip=true. Same filters and scoping as the paged listing.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @AuthenticationPrincipal AppUser currentUser,
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String outcome,
+            @RequestParam(required = false) String targetType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) UUID subtreeOf,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        AuditLogExporter.Format exportFormat;
+        try {
+            exportFormat = AuditLogExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AuditLogFilter filter = scope(
+                currentUser,
+                new AuditLogFilter(tenantId, userId, action, outcome, targetType, from, to, subtreeOf)
+        );
+        if (filter == null) {
+            return ResponseEntity.status(403).build();
+        }
+
+        String fileName = "audit-log." + (exportFormat == AuditLogExporter.Format.CSV ? "csv" : "ndjson");
+        MediaType contentType = exportFormat == AuditLogExporter.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        if (gzip) {
+            fileName += ".gz";
+            contentType = new MediaType("application", "gzip");
+        }
+
+        StreamingResponseBody body = out -> auditLogExporter.export(filter, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Audit counts by action and outcome per hour or day (?granularity=hour|day),
+     * read from the rollup tables. Defaults to the last 24 hours (hour) or
+     * 30 days (day). Counts have no per-user breakdown, so only super admins
+     * and tenant admins (forced to their tenant) may read them.
+     */
+    @GetMapping("/aggregates")
+    public ResponseEntity<List<AuditAggregateBucket>> getAuditAggregates(
             @AuthenticationPrincipal AppUser currentUser,
-            @RequestParam(required = false) UUID tenantId
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) String action,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
     ) {
-        // Obtenir les rôles de l'utilisateur
-        List<String> roles = urrRepository.findAllByUserId(currentUser.getId())
-                .stream()
+        AuditAggregationService.Granularity bucketSize;
+        try {
+            bucketSize = AuditAggregationService.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AuditLogFilter filter = scope(
+                currentUser,
+                new AuditLogFilter(tenantId, null, action, null, null, from, to, null)
+        );
+        if (filter == null || filter.userId() != null) {
+            return ResponseEntity.status(403).build();
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null
+                ? from
+                : end.minus(bucketSize == AuditAggregationService.Granularity.HOUR ? Duration.ofDays(1) : Duration.ofDays(30));
+
+        return ResponseEntity.ok(
+                auditAggregationService.aggregate(filter.tenantId(), bucketSize, start, end, action)
+        );
+    }
+
+    /**
+     * Restricts the filter to what the current user may see, or null when a
+     * tenant admin has no tenant to be scoped to.
+     */
+    private AuditLogFilter scope(AppUser currentUser, AuditLogFilter filter) {
+        // Obtenir les rôles de l'utilisateur (bindings, rôle et ressource en une requête)
+        List<UserRoleResource> bindings = urrRepository.findAllByUserIdWithRoleAndResource(currentUser.getId());
+        List<String> roles = bindings.stream()
                 .map(urr -> urr.getRole().getName())
-                .collect(Collectors.toList());
+                .toList();
 
         boolean isSuperAdmin = roles.contains("ADMIN");
         boolean isTenantAdmin = roles.contains("TENANT_ADMIN");
 
-        List<AuditLog> logs;
-
+        // Super admin : tous les logs, éventuellement restreints au tenant demandé
         if (isSuperAdmin) {
-            if (tenantId != null) {
-                logs = auditLogRepository.findAllByTenantId(tenantId);
-            } else {
-                logs = auditLogRepository.findAll();
-            }
-        } else if (isTenantAdmin) {
+            return filter;
+        }
+        if (isTenantAdmin) {
             // Un admin de tenant ne peut voir que les logs de son propre tenant
             // Pour simplifier, on récupère le tenantId depuis sa première assignation de rôle
-            UUID userTenantId = urrRepository.findAllByUserId(currentUser.getId()).stream()
+            UUID userTenantId = bindings.stream()
                     .map(urr -> urr.getResource().getTenant().getId())
                     .findFirst()
                     .orElse(null);
 
-            if (userTenantId == null) {
-                return ResponseEntity.status(403).build();
-            }
-            logs = auditLogRepository.findAllByTenantId(userTenantId);
-        } else {
-            // Les autres utilisateurs ne voient que leurs propres logs
-            logs = auditLogRepository.findAllByUserId(currentUser.getId());
+            return userTenantId != null ? filter.withTenantId(userTenantId) : null;
         }
-
-        List<Map<String, Object>> response = logs.stream()
-                .map(log -> Map.<String, Object>of(
-                        "id", log.getId(),
-                        "action", log.getAction(),
-                        "timestamp", log.getTimestamp(),
-                        "username", log.getUser() != null ? log.getUser().getUsername() : "Système",
-                        "resourceType", log.getResource() != null ? log.getResource().getType() : (log.getTargetType() != null ? log.getTargetType() : ""),
-                        "outcome", log.getOutcome() != null ? log.getOutcome() : "",
-                        "message", log.getMessage() != null ? log.getMessage() : ""
-                ))
-                .sorted((a, b) -> ((java.time.Instant) b.get("timestamp")).compareTo((java.time.Instant) a.get("timestamp")))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(response);
+        // Les autres utilisateurs ne voient que leurs propres logs
+        return filter.withUserId(currentUser.getId());
     }
 }
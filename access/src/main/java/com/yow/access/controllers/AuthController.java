@@ -1,9 +1,11 @@
 package com.yow.access.controllers;
 
+import com.yow.access.config.security.ratelimit.AuthRateLimiter;
 import com.yow.access.dto.*;
 import com.yow.access.entities.AppUser;
 import com.yow.access.repositories.UserRepository;
 import com.yow.access.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,22 +20,53 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserRepository userRepository;
+    private final AuthRateLimiter authRateLimiter;
 
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    public AuthController(AuthService authService, UserRepository userRepository, AuthRateLimiter authRateLimiter) {
         this.authService = authService;
         this.userRepository = userRepository;
+        this.authRateLimiter = authRateLimiter;
     }
 
     /**
      * POST /api/auth/login
-     * Connexion d'un utilisateur
+     * Connexion d'un utilisateur (limitée par compte et par IP)
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest
+    ) {
+        authRateLimiter.checkLogin(request.getEmail(), httpRequest.getRemoteAddr());
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/auth/refresh
+     * Nouveau token d'accès contre un refresh token (rotation : le refresh token change à chaque appel)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * POST /api/auth/logout
+     * Revoquer le token d'acces courant et, s'il est fourni, le refresh token
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            HttpServletRequest httpRequest
+    ) {
+        String authHeader = httpRequest.getHeader("Authorization");
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * POST /api/auth/activate
      * Activer un compte et definir le mot de passe
@@ -67,11 +100,15 @@ public class AuthController {
 
     /**
      * POST /api/auth/forgot-password
-     * Demander la reinitialisation du mot de passe
+     * Demander la reinitialisation du mot de passe (limitée par compte et par IP)
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<Map<String, String>> forgotPassword(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, String>> forgotPassword(
+            @RequestBody Map<String, String> request,
+            HttpServletRequest httpRequest
+    ) {
         String email = request.get("email");
+        authRateLimiter.checkPasswordReset(email, httpRequest.getRemoteAddr());
         authService.requestPasswordReset(email);
         return ResponseEntity.ok(Map.of("message", "Si cet email existe, un lien de reinitialisation a ete envoye."));
     }
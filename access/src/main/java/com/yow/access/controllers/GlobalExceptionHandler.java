@@ -1,8 +1,17 @@
 package com.yow.access.controllers;
 
 import com.yow.access.exceptions.AccessDeniedException;
+import com.yow.access.exceptions.InvalidAggregationException;
+import com.yow.access.exceptions.InvalidCursorException;
+import com.yow.access.exceptions.InvalidHierarchyException;
+import com.yow.access.exceptions.InvalidImportException;
+import com.yow.access.exceptions.InvalidRefreshTokenException;
+import com.yow.access.exceptions.InvalidResourceNameException;
+import com.yow.access.exceptions.PasswordHashingBusyException;
 import com.yow.access.exceptions.TenantAlreadyExistsException;
+import com.yow.access.exceptions.TooManyAttemptsException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -31,6 +40,56 @@ public class GlobalExceptionHandler {
                 .body(error("VALIDATION_ERROR", ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest()
+                .body(error("INVALID_CURSOR", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidHierarchyException.class)
+    public ResponseEntity<?> handleInvalidHierarchy(InvalidHierarchyException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(error("INVALID_HIERARCHY", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidResourceNameException.class)
+    public ResponseEntity<?> handleInvalidResourceName(InvalidResourceNameException ex) {
+        return ResponseEntity.badRequest()
+                .body(error("INVALID_RESOURCE_NAME", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<?> handleInvalidImport(InvalidImportException ex) {
+        return ResponseEntity.badRequest()
+                .body(error("INVALID_IMPORT", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidAggregationException.class)
+    public ResponseEntity<?> handleInvalidAggregation(InvalidAggregationException ex) {
+        return ResponseEntity.badRequest()
+                .body(error("INVALID_AGGREGATION", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<?> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(error("INVALID_REFRESH_TOKEN", ex.getMessage()));
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<?> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error("AUTH_BUSY", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TooManyAttemptsException.class)
+    public ResponseEntity<?> handleTooManyAttempts(TooManyAttemptsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error("TOO_MANY_ATTEMPTS", ex.getMessage()));
+    }
+
     private Map<String, Object> error(String code, String message) {
         return Map.of(
                 "timestamp", Instant.now(),
@@ -1,47 +1,113 @@
 package com.yow.access.controllers;
 
 import com.yow.access.config.security.context.AuthenticatedUserContext;
+import com.yow.access.dto.BatchPermissionCheckRequest;
 import com.yow.access.dto.CreateResourceRequest;
 import com.yow.access.dto.MoveResourceRequest;
+import com.yow.access.dto.RenameResourceRequest;
+import com.yow.access.dto.ResourceImportResponse;
 import com.yow.access.dto.ResourceTreeResponse;
+import com.yow.access.services.ResourceImportService;
 import com.yow.access.services.ResourceService;
+import com.yow.access.services.ResourceTreeStreamer;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/resources")
 public class ResourceController {
 
+    private static final int DEFAULT_EXPAND_DEPTH = 2;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final ResourceService resourceService;
     private final com.yow.access.services.AuthorizationService authorizationService;
     private final AuthenticatedUserContext userContext;
+    private final ResourceTreeStreamer resourceTreeStreamer;
+    private final ResourceImportService resourceImportService;
 
     public ResourceController(
             ResourceService resourceService,
             com.yow.access.services.AuthorizationService authorizationService,
-            AuthenticatedUserContext userContext
+            AuthenticatedUserContext userContext,
+            ResourceTreeStreamer resourceTreeStreamer,
+            ResourceImportService resourceImportService
     ) {
         this.resourceService = resourceService;
         this.authorizationService = authorizationService;
         this.userContext = userContext;
+        this.resourceTreeStreamer = resourceTreeStreamer;
+        this.resourceImportService = resourceImportService;
     }
 
     /**
      * READ RESOURCE TREE (RBAC protected)
+     * ?permissions=true attaches the caller's effective permissions to each node
+     * and prunes the subtrees the caller cannot read.
+     * ?depth=&limit= switch to lazy expansion: that many levels, at most limit
+     * children per parent, each node with its childCount.
      */
     @GetMapping("/tree/{rootId}")
     public ResponseEntity<ResourceTreeResponse> getTree(
-            @PathVariable UUID rootId
+            @PathVariable UUID rootId,
+            @RequestParam(name = "permissions", defaultValue = "false") boolean withPermissions,
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (depth == null && limit == null) {
+            return ResponseEntity.ok(
+                    resourceService.getResourceTree(
+                            userContext.getUserId(),
+                            rootId,
+                            withPermissions
+                    )
+            );
+        }
+
+        return ResponseEntity.ok(
+                resourceService.expandResourceTree(
+                        userContext.getUserId(),
+                        rootId,
+                        depth != null ? depth : DEFAULT_EXPAND_DEPTH,
+                        limit != null ? limit : DEFAULT_PAGE_SIZE,
+                        null,
+                        withPermissions
+                )
+        );
+    }
+
+    /**
+     * EXPAND CHILDREN (RBAC protected)
+     * Next page of a node's children after the keyset cursor returned as
+     * nextCursor, optionally expanded depth levels down.
+     */
+    @GetMapping("/{resourceId}/children")
+    public ResponseEntity<ResourceTreeResponse> getChildren(
+            @PathVariable UUID resourceId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "1") int depth,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(name = "permissions", defaultValue = "false") boolean withPermissions
     ) {
         return ResponseEntity.ok(
-                resourceService.getResourceTree(
+                resourceService.expandResourceTree(
                         userContext.getUserId(),
-                        rootId
+                        resourceId,
+                        depth,
+                        limit,
+                        after,
+                        withPermissions
                 )
         );
     }
@@ -63,8 +129,43 @@ public class ResourceController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    /**
+     * BULK IMPORT - NESTED TREE (RBAC protected)
+     * Body {"parentResourceId", "nodes": [{"name", "type", "children"}]}, read
+     * token by token as it arrives; creates the subtrees in one transaction.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResourceImportResponse> importTree(InputStream body) {
+        ResourceImportResponse response = resourceImportService.importTree(
+                userContext.getUserId(),
+                body
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * BULK IMPORT - FLAT CSV (RBAC protected)
+     * Body "ref,parentRef,name,type", read line by line as it arrives;
+     * rows with an empty parentRef go under parentResourceId.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ResourceImportResponse> importCsv(
+            @RequestParam UUID parentResourceId,
+            InputStream body
+    ) {
+        ResourceImportResponse response = resourceImportService.importCsv(
+                userContext.getUserId(),
+                parentResourceId,
+                new InputStreamReader(body, StandardCharsets.UTF_8)
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /**
      * DELETE RESOURCE (RBAC protected)
+     * Soft delete: the subtree is hidden at once and purged in the background.
      */
     @DeleteMapping("/{resourceId}")
     public ResponseEntity<Void> deleteResource(
@@ -95,6 +196,24 @@ public class ResourceController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * RENAME RESOURCE (RBAC protected)
+     * Descendant paths are rewritten in the same transaction.
+     */
+    @PatchMapping("/{resourceId}/rename")
+    public ResponseEntity<Void> renameResource(
+            @PathVariable UUID resourceId,
+            @Valid @RequestBody RenameResourceRequest request
+    ) {
+        resourceService.renameResource(
+                userContext.getUserId(),
+                resourceId,
+                request.getName()
+        );
+
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * GET ROOT RESOURCES BY TENANT
      * Retourne l'arbre complet des ressources d'un tenant
@@ -108,6 +227,21 @@ public class ResourceController {
         );
     }
 
+    /**
+     * GET ROOT RESOURCES BY TENANT - STREAMING
+     * Same JSON as above, written node by node while rows are read from the
+     * database: memory stays flat whatever the size of the tenant.
+     */
+    @GetMapping(value = "/tenant/{tenantId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamResourcesByTenant(
+            @PathVariable UUID tenantId
+    ) {
+        StreamingResponseBody body = out -> resourceTreeStreamer.writeTenantTree(tenantId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * COUNT RESOURCES BY TENANT
      */
@@ -132,4 +266,22 @@ public class ResourceController {
                 authorizationService.getEffectivePermissions(userContext.getUserId(), resourceId)
         );
     }
+
+    /**
+     * BATCH PERMISSION CHECK
+     * Decision matrix resourceId -> permission -> allowed for the current user,
+     * in one call instead of one /{resourceId}/permissions call per node.
+     */
+    @PostMapping("/permissions/check")
+    public ResponseEntity<Map<UUID, Map<String, Boolean>>> checkPermissions(
+            @Valid @RequestBody BatchPermissionCheckRequest request
+    ) {
+        return ResponseEntity.ok(
+                authorizationService.checkBatch(
+                        userContext.getUserId(),
+                        request.getResourceIds(),
+                        request.getPermissions()
+                )
+        );
+    }
 }
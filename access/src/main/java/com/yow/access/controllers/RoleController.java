@@ -1,35 +1,57 @@
 package com.yow.access.controllers;
 
+import com.yow.access.config.security.Permissions;
 import com.yow.access.dto.CreateRoleRequest;
 import com.yow.access.entities.Permission;
+import com.yow.access.entities.Resource;
 import com.yow.access.entities.Role;
+import com.yow.access.events.RoleChangedEvent;
+import com.yow.access.exceptions.AccessDeniedException;
 import com.yow.access.repositories.PermissionRepository;
+import com.yow.access.repositories.ResourceRepository;
 import com.yow.access.repositories.RoleRepository;
+import com.yow.access.services.AuthorizationService;
+import com.yow.access.services.rbac.CompiledRole;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/roles")
 public class RoleController {
 
+    // Noms interprétés par le moteur RBAC (super admin / admin de tenant) : jamais attribuables
+    private static final Set<String> RESERVED_ROLE_NAMES = Set.of(CompiledRole.ADMIN, CompiledRole.TENANT_ADMIN);
+
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final ResourceRepository resourceRepository;
+    private final AuthorizationService authorizationService;
     private final com.yow.access.config.security.context.AuthenticatedUserContext userContext;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RoleController(
             RoleRepository roleRepository,
             PermissionRepository permissionRepository,
-            com.yow.access.config.security.context.AuthenticatedUserContext userContext
+            ResourceRepository resourceRepository,
+            AuthorizationService authorizationService,
+            com.yow.access.config.security.context.AuthenticatedUserContext userContext,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.resourceRepository = resourceRepository;
+        this.authorizationService = authorizationService;
         this.userContext = userContext;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping
@@ -54,6 +76,8 @@ public class RoleController {
 
     @PostMapping
     public ResponseEntity<Role> createRole(@Valid @RequestBody CreateRoleRequest request) {
+        rejectReservedName(request.getName());
+
         // Validation uniqueness based on scope
         if (request.getTenantId() != null) {
             // Tenant Role
@@ -88,16 +112,79 @@ public class RoleController {
 
         // Assigner les permissions si fournies
         if (request.getPermissionIds() != null && !request.getPermissionIds().isEmpty()) {
-            Set<Permission> permissions = new HashSet<>();
-            for (Short permId : request.getPermissionIds()) {
-                Permission perm = permissionRepository.findById(permId)
-                        .orElseThrow(() -> new IllegalArgumentException("Permission introuvable: " + permId));
-                permissions.add(perm);
-            }
-            role.setPermissions(permissions);
+            role.setPermissions(loadPermissions(request.getPermissionIds()));
         }
 
         roleRepository.save(role);
         return ResponseEntity.status(HttpStatus.CREATED).body(role);
     }
+
+    @PutMapping("/{roleId}")
+    public ResponseEntity<Role> updateRole(
+            @PathVariable Short roleId,
+            @Valid @RequestBody CreateRoleRequest request
+    ) {
+        UUID userId = userContext.getUserId();
+
+        authorizationService.checkGlobalPermission(
+                userId,
+                Permissions.ROLE_UPDATE
+        );
+
+        Role role = roleRepository.findById(roleId)
+                .orElseThrow(() -> new IllegalArgumentException("Rôle introuvable: " + roleId));
+
+        // Les rôles système (sans tenant) et les rôles réservés ne se modifient pas via l'API
+        if (role.getTenantId() == null || RESERVED_ROLE_NAMES.contains(role.getName())) {
+            throw new AccessDeniedException(Permissions.ROLE_UPDATE + " (system role " + role.getName() + ")");
+        }
+        rejectReservedName(request.getName());
+
+        // Un rôle personnalisé ne se modifie que depuis son propre tenant
+        List<Resource> roots = resourceRepository.findByTenantIdAndParentIsNull(role.getTenantId());
+        if (roots.isEmpty()) {
+            throw new AccessDeniedException(Permissions.ROLE_UPDATE);
+        }
+        for (Resource root : roots) {
+            authorizationService.checkPermission(userId, root.getId(), Permissions.ROLE_UPDATE);
+        }
+
+        String name = request.getName().trim();
+        if (roleRepository.findByNameAndTenantIdIsNull(name).isPresent()
+                || roleRepository.findByNameAndTenantId(name, role.getTenantId())
+                        .filter(other -> !other.getId().equals(roleId))
+                        .isPresent()) {
+            throw new IllegalArgumentException("Un rôle avec ce nom existe déjà pour cette organisation.");
+        }
+
+        role.setName(name);
+        role.setPermissions(
+                request.getPermissionIds() != null
+                        ? loadPermissions(request.getPermissionIds())
+                        : new HashSet<>()
+        );
+
+        roleRepository.save(role);
+
+        // Les bindings compilés qui utilisent ce rôle doivent être recalculés
+        eventPublisher.publishEvent(new RoleChangedEvent(roleId));
+
+        return ResponseEntity.ok(role);
+    }
+
+    private void rejectReservedName(String name) {
+        if (name != null && RESERVED_ROLE_NAMES.contains(name.trim().toUpperCase(Locale.ROOT))) {
+            throw new AccessDeniedException(Permissions.ROLE_UPDATE + " (reserved role name " + name.trim() + ")");
+        }
+    }
+
+    private Set<Permission> loadPermissions(List<Short> permissionIds) {
+        Set<Permission> permissions = new HashSet<>();
+        for (Short permId : permissionIds) {
+            Permission perm = permissionRepository.findById(permId)
+                    .orElseThrow(() -> new IllegalArgumentException("Permission introuvable: " + permId));
+            permissions.add(perm);
+        }
+        return permissions;
+    }
 }
@@ -0,0 +1,10 @@
+package com.yow.access.dto;
+
+import java.time.Instant;
+
+/**
+ * Number of audit entries for one (bucket, action, outcome), bucket being the
+ * start of the hour or day.
+ */
+public record AuditAggregateBucket(Instant bucket, String action, String outcome, long count) {
+}
@@ -0,0 +1,67 @@
+package com.yow.access.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One audit row as listed by GET /api/audit-logs, read straight from a
+ * projection query (no AuditLog entity, no lazy user/resource).
+ * Coalesced repeats have {@code occurrences} above 1, from {@code timestamp}
+ * to {@code lastTimestamp}.
+ */
+public class AuditLogEntryResponse {
+
+    private final UUID id;
+    private final String action;
+    private final Instant timestamp;
+    private final String username;
+    private final String resourceType;
+    private final String outcome;
+    private final String message;
+    private final int occurrences;
+    private final Instant lastTimestamp;
+
+    public AuditLogEntryResponse(
+            UUID id,
+            String action,
+            Instant timestamp,
+            String username,
+            String resourceType,
+            String outcome,
+            String message
+    ) {
+        this(id, action, timestamp, username, resourceType, outcome, message, 1, null);
+    }
+
+    public AuditLogEntryResponse(
+            UUID id,
+            String action,
+            Instant timestamp,
+            String username,
+            String resourceType,
+            String outcome,
+            String message,
+            int occurrences,
+            Instant lastTimestamp
+    ) {
+        this.id = id;
+        this.action = action;
+        this.timestamp = timestamp;
+        this.username = username;
+        this.resourceType = resourceType;
+        this.outcome = outcome;
+        this.message = message;
+        this.occurrences = occurrences;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public UUID getId() { return id; }
+    public String getAction() { return action; }
+    public Instant getTimestamp() { return timestamp; }
+    public String getUsername() { return username; }
+    public String getResourceType() { return resourceType; }
+    public String getOutcome() { return outcome; }
+    public String getMessage() { return message; }
+    public int getOccurrences() { return occurrences; }
+    public Instant getLastTimestamp() { return lastTimestamp; }
+}
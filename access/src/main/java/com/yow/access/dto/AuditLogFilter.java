@@ -0,0 +1,29 @@
+package com.yow.access.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Server-side filters of the audit log query; null means "any".
+ * {@code from} is inclusive, {@code to} exclusive. {@code subtreeOf} keeps the
+ * entries attached to that resource or to any of its descendants.
+ */
+public record AuditLogFilter(
+        UUID tenantId,
+        UUID userId,
+        String action,
+        String outcome,
+        String targetType,
+        Instant from,
+        Instant to,
+        UUID subtreeOf
+) {
+
+    public AuditLogFilter withTenantId(UUID tenantId) {
+        return new AuditLogFilter(tenantId, userId, action, outcome, targetType, from, to, subtreeOf);
+    }
+
+    public AuditLogFilter withUserId(UUID userId) {
+        return new AuditLogFilter(tenantId, userId, action, outcome, targetType, from, to, subtreeOf);
+    }
+}
@@ -0,0 +1,9 @@
+package com.yow.access.dto;
+
+import java.util.List;
+
+/**
+ * A page of audit entries, newest first; {@code nextCursor} is null on the last page.
+ */
+public record AuditLogPage(List<AuditLogEntryResponse> items, String nextCursor) {
+}
@@ -15,6 +15,8 @@ public class AuthResponse {
     private String username;
     private List<String> roles;
     private boolean mustChangePassword;
+    private String refreshToken;
+    private Long expiresIn; // Durée de vie du token d'accès, en secondes
 
     public AuthResponse() {}
 
@@ -47,6 +49,8 @@ public class AuthResponse {
         private String username;
         private List<String> roles;
         private boolean mustChangePassword;
+        private String refreshToken;
+        private Long expiresIn;
 
         public AuthResponseBuilder token(String token) { this.token = token; return this; }
         public AuthResponseBuilder userId(UUID userId) { this.userId = userId; return this; }
@@ -54,9 +58,14 @@ public class AuthResponse {
         public AuthResponseBuilder username(String username) { this.username = username; return this; }
         public AuthResponseBuilder roles(List<String> roles) { this.roles = roles; return this; }
         public AuthResponseBuilder mustChangePassword(boolean mustChangePassword) { this.mustChangePassword = mustChangePassword; return this; }
+        public AuthResponseBuilder refreshToken(String refreshToken) { this.refreshToken = refreshToken; return this; }
+        public AuthResponseBuilder expiresIn(Long expiresIn) { this.expiresIn = expiresIn; return this; }
         
         public AuthResponse build() {
-            return new AuthResponse(token, userId, email, username, roles, mustChangePassword);
+            AuthResponse response = new AuthResponse(token, userId, email, username, roles, mustChangePassword);
+            response.setRefreshToken(refreshToken);
+            response.setExpiresIn(expiresIn);
+            return response;
         }
     }
 
@@ -73,4 +82,8 @@ public class AuthResponse {
     public void setRoles(List<String> roles) { this.roles = roles; }
     public boolean isMustChangePassword() { return mustChangePassword; }
     public void setMustChangePassword(boolean mustChangePassword) { this.mustChangePassword = mustChangePassword; }
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    public Long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(Long expiresIn) { this.expiresIn = expiresIn; }
 }
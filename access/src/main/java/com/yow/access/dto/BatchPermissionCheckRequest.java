@@ -0,0 +1,44 @@
+package com.yow.access.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public class BatchPermissionCheckRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull UUID> resourceIds;
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotBlank String> permissions;
+
+    public BatchPermissionCheckRequest() {
+    }
+
+    public BatchPermissionCheckRequest(List<UUID> resourceIds, List<String> permissions) {
+        this.resourceIds = resourceIds;
+        this.permissions = permissions;
+    }
+
+    public List<UUID> getResourceIds() {
+        return resourceIds;
+    }
+
+    public void setResourceIds(List<UUID> resourceIds) {
+        this.resourceIds = resourceIds;
+    }
+
+    public List<String> getPermissions() {
+        return permissions;
+    }
+
+    public void setPermissions(List<String> permissions) {
+        this.permissions = permissions;
+    }
+}
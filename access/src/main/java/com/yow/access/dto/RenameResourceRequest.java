@@ -0,0 +1,28 @@
+package com.yow.access.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public class RenameResourceRequest {
+
+    @NotBlank
+    @Size(max = 100)
+    @Pattern(regexp = "[^/]*", message = "must not contain '/'")
+    private String name;
+
+    public RenameResourceRequest() {
+    }
+
+    public RenameResourceRequest(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,20 @@
+package com.yow.access.dto;
+
+public class ResourceImportResponse {
+
+    private final int imported;
+    private final int batches;
+
+    public ResourceImportResponse(int imported, int batches) {
+        this.imported = imported;
+        this.batches = batches;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+}
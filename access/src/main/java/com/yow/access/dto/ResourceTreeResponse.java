@@ -1,9 +1,13 @@
 package com.yow.access.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.yow.access.entities.Resource;
+import com.yow.access.repositories.ResourceChildView;
+import com.yow.access.repositories.ResourceNodeView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public class ResourceTreeResponse {
@@ -13,6 +17,17 @@ public class ResourceTreeResponse {
     private String type;
     private List<ResourceTreeResponse> children = new ArrayList<>();
 
+    // Permissions effectives de l'appelant (uniquement si demandées)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Set<String> permissions;
+
+    // Expansion paresseuse : nombre total d'enfants et curseur de la page suivante
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long childCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public static ResourceTreeResponse fromEntity(Resource resource) {
         ResourceTreeResponse dto = new ResourceTreeResponse();
         dto.id = resource.getId();
@@ -21,13 +36,42 @@ public class ResourceTreeResponse {
         return dto;
     }
 
+    public static ResourceTreeResponse fromView(ResourceNodeView row) {
+        ResourceTreeResponse dto = new ResourceTreeResponse();
+        dto.id = row.getId();
+        dto.name = row.getName();
+        dto.type = row.getType();
+        return dto;
+    }
+
+    public static ResourceTreeResponse fromView(ResourceChildView row) {
+        ResourceTreeResponse dto = fromView((ResourceNodeView) row);
+        dto.childCount = row.getChildCount();
+        return dto;
+    }
+
     public void addChild(ResourceTreeResponse child) {
         this.children.add(child);
     }
 
+    public void setPermissions(Set<String> permissions) {
+        this.permissions = permissions;
+    }
+
+    public void setChildCount(Long childCount) {
+        this.childCount = childCount;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     // getters only (immutabilité côté API)
     public UUID getId() { return id; }
     public String getName() { return name; }
     public String getType() { return type; }
     public List<ResourceTreeResponse> getChildren() { return children; }
+    public Set<String> getPermissions() { return permissions; }
+    public Long getChildCount() { return childCount; }
+    public String getNextCursor() { return nextCursor; }
 }
@@ -44,6 +44,10 @@ public class AppUser {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Incrémenté à chaque changement de sécurité : les jetons émis avant sont refusés
+    @Column(name = "security_stamp", nullable = false)
+    private int securityStamp;
+
     public AppUser() {}
 
     // Getters and Setters
@@ -69,4 +73,7 @@ public class AppUser {
     public void setCreatedBy(AppUser createdBy) { this.createdBy = createdBy; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public int getSecurityStamp() { return securityStamp; }
+    public void setSecurityStamp(int securityStamp) { this.securityStamp = securityStamp; }
+    public void bumpSecurityStamp() { this.securityStamp++; }
 }
\ No newline at end of file
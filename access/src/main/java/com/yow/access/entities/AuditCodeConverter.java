@@ -0,0 +1,75 @@
+package com.yow.access.entities;
+
+import com.yow.access.services.audit.AuditDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps the dictionary-encoded audit columns (SMALLINT) to their names.
+ * Instantiated by Hibernate through the Spring bean container, hence the
+ * injected {@link AuditDictionary}.
+ */
+public abstract class AuditCodeConverter implements AttributeConverter<String, Short> {
+
+    private final AuditDictionary dictionary;
+    private final AuditDictionary.Kind kind;
+
+    protected AuditCodeConverter(AuditDictionary dictionary, AuditDictionary.Kind kind) {
+        this.dictionary = dictionary;
+        this.kind = kind;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String name) {
+        return dictionary.encode(kind, name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return dictionary.decode(kind, code);
+    }
+
+    @Converter
+    public static class Action extends AuditCodeConverter {
+        public Action(AuditDictionary dictionary) {
+            super(dictionary, AuditDictionary.Kind.ACTION);
+        }
+    }
+
+    @Converter
+    public static class TargetType extends AuditCodeConverter {
+        public TargetType(AuditDictionary dictionary) {
+            super(dictionary, AuditDictionary.Kind.TARGET_TYPE);
+        }
+    }
+
+    @Converter
+    public static class Outcome extends AuditCodeConverter {
+        public Outcome(AuditDictionary dictionary) {
+            super(dictionary, AuditDictionary.Kind.OUTCOME);
+        }
+    }
+
+    /**
+     * User agents are deduplicated in audit_user_agent and referenced by id.
+     */
+    @Converter
+    public static class UserAgent implements AttributeConverter<String, Integer> {
+
+        private final AuditDictionary dictionary;
+
+        public UserAgent(AuditDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public Integer convertToDatabaseColumn(String userAgent) {
+            return dictionary.encodeUserAgent(userAgent);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Integer id) {
+            return dictionary.decodeUserAgent(id);
+        }
+    }
+}
@@ -17,20 +17,24 @@ public class AuditLog {
     @JoinColumn(name = "user_id")
     private AppUser user;
 
-    @Column(name = "action", nullable = false, length = 100)
+    // Colonnes encodées par dictionnaire (audit_code, audit_user_agent)
+    @Convert(converter = AuditCodeConverter.Action.class)
+    @Column(name = "action_code", nullable = false)
     private String action;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "resource_id")
     private Resource resource;
     
-    @Column(name = "target_type", length = 50)
+    @Convert(converter = AuditCodeConverter.TargetType.class)
+    @Column(name = "target_type_code")
     private String targetType;
 
     @Column(name = "target_id", columnDefinition = "uuid")
     private UUID targetId;
 
-    @Column(name = "outcome", length = 50)
+    @Convert(converter = AuditCodeConverter.Outcome.class)
+    @Column(name = "outcome_code", nullable = false)
     private String outcome;
 
     @Column(name = "message", columnDefinition = "text")
@@ -39,7 +43,8 @@ public class AuditLog {
     @Column(name = "ip_address", length = 45)
     private String ipAddress;
     
-    @Column(name = "user_agent", length = 255)
+    @Convert(converter = AuditCodeConverter.UserAgent.class)
+    @Column(name = "user_agent_id")
     private String userAgent;
 
     @Column(name = "timestamp", nullable = false)
@@ -49,6 +54,13 @@ public class AuditLog {
     @JoinColumn(name = "tenant_id")
     private Tenant tenant;
 
+    // Refus répétés fusionnés : nombre d'occurrences et horodatage de la dernière
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences = 1;
+
+    @Column(name = "last_timestamp")
+    private Instant lastTimestamp;
+
     public AuditLog() {}
 
     public UUID getId() { return id; }
@@ -75,4 +87,8 @@ public class AuditLog {
     public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
     public Tenant getTenant() { return tenant; }
     public void setTenant(Tenant tenant) { this.tenant = tenant; }
+    public int getOccurrences() { return occurrences; }
+    public void setOccurrences(int occurrences) { this.occurrences = occurrences; }
+    public Instant getLastTimestamp() { return lastTimestamp; }
+    public void setLastTimestamp(Instant lastTimestamp) { this.lastTimestamp = lastTimestamp; }
 }
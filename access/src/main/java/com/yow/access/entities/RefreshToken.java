@@ -0,0 +1,63 @@
+package com.yow.access.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_token")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    private AppUser user;
+
+    // Tous les jetons issus d'une même connexion (rotations successives)
+    @Column(name = "family_id", nullable = false, updatable = false)
+    private UUID familyId;
+
+    // SHA-256 du jeton, en hexadécimal ; le jeton lui-même n'est jamais stocké
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64, updatable = false)
+    private String tokenHash;
+
+    // Stamp de l'utilisateur à l'émission : un changement de sécurité invalide la famille
+    @Column(name = "security_stamp", nullable = false, updatable = false)
+    private int securityStamp;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    public RefreshToken() {}
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public AppUser getUser() { return user; }
+    public void setUser(AppUser user) { this.user = user; }
+    public UUID getFamilyId() { return familyId; }
+    public void setFamilyId(UUID familyId) { this.familyId = familyId; }
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    public int getSecurityStamp() { return securityStamp; }
+    public void setSecurityStamp(int securityStamp) { this.securityStamp = securityStamp; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public Instant getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(Instant revokedAt) { this.revokedAt = revokedAt; }
+
+    public boolean isActive(Instant now) {
+        return revokedAt == null && expiresAt.isAfter(now);
+    }
+}
@@ -33,6 +33,10 @@ public class Resource {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Suppression logique : posée sur la racine du sous-arbre, purgé ensuite en arrière-plan
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     public Resource() {}
 
     public UUID getId() { return id; }
@@ -49,4 +53,6 @@ public class Resource {
     public void setPath(String path) { this.path = path; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
 }
@@ -29,14 +29,23 @@ public final class ResourceFactory {
         resource.setType(type);
         resource.setName(name);
 
-        // Hierarchical path construction
-        String parentPath = parent.getPath();
+        resource.setPath(childPath(parent, name));
+
+        return resource;
+    }
+
+    /**
+     * Hierarchical path of a child named {@code name} under {@code parent}.
+     */
+    public static String childPath(Resource parent, String name) {
+        return childPath(parent.getPath(), name);
+    }
+
+    public static String childPath(String parentPath, String name) {
         String normalized = parentPath.endsWith("/")
                 ? parentPath
                 : parentPath + "/";
 
-        resource.setPath(normalized + name);
-
-        return resource;
+        return normalized + name;
     }
 }
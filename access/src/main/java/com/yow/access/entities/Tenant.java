@@ -25,6 +25,10 @@ public class Tenant {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Rétention du journal d'audit en mois ; null = valeur par défaut
+    @Column(name = "audit_retention_months")
+    private Integer auditRetentionMonths;
+
     public Tenant() {}
 
     public UUID getId() { return id; }
@@ -37,4 +41,6 @@ public class Tenant {
     public void setStatus(String status) { this.status = status; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Integer getAuditRetentionMonths() { return auditRetentionMonths; }
+    public void setAuditRetentionMonths(Integer auditRetentionMonths) { this.auditRetentionMonths = auditRetentionMonths; }
 }
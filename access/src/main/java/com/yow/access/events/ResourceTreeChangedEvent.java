@@ -0,0 +1,10 @@
+package com.yow.access.events;
+
+import java.util.UUID;
+
+/**
+ * Published when the resource hierarchy of a tenant changes structurally
+ * (resource created, moved or deleted).
+ */
+public record ResourceTreeChangedEvent(UUID tenantId) {
+}
@@ -0,0 +1,7 @@
+package com.yow.access.events;
+
+/**
+ * Published when the permissions of a role are edited.
+ */
+public record RoleChangedEvent(Short roleId) {
+}
@@ -0,0 +1,9 @@
+package com.yow.access.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's role bindings or enabled flag change.
+ */
+public record UserAccessChangedEvent(UUID userId) {
+}
@@ -0,0 +1,8 @@
+package com.yow.access.exceptions;
+
+public class InvalidAggregationException extends RuntimeException {
+
+    public InvalidAggregationException(String message) {
+        super(message);
+    }
+}
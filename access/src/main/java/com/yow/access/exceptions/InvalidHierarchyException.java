@@ -0,0 +1,8 @@
+package com.yow.access.exceptions;
+
+public class InvalidHierarchyException extends RuntimeException {
+
+    public InvalidHierarchyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yow.access.exceptions;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yow.access.exceptions;
+
+public class InvalidResourceNameException extends RuntimeException {
+
+    public InvalidResourceNameException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yow.access.exceptions;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Authentication is busy, please retry shortly");
+    }
+}
@@ -0,0 +1,16 @@
+package com.yow.access.exceptions;
+
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(long retryAfterSeconds) {
+        // Sans trace de pile : un refus doit rester quasi gratuit
+        super("Too many attempts, retry in " + retryAfterSeconds + "s", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,14 +2,52 @@ package com.yow.access.repositories;
 
 import com.yow.access.entities.AuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * audit_log est partitionnée par mois sur timestamp : chaque requête porte une
+ * borne sur timestamp pour que PostgreSQL ne parcoure que les partitions utiles.
+ */
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
 
-    List<AuditLog> findAllByTenantId(UUID tenantId);
+    @Query("""
+        SELECT a FROM AuditLog a
+        WHERE a.tenant.id = :tenantId
+          AND a.timestamp >= :from AND a.timestamp < :to
+        ORDER BY a.timestamp DESC
+        """)
+    List<AuditLog> findAllByTenantIdBetween(
+            @Param("tenantId") UUID tenantId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
 
-    List<AuditLog> findAllByUserId(UUID userId);
-}
+    @Query("""
+        SELECT a FROM AuditLog a
+        WHERE a.user.id = :userId
+          AND a.timestamp >= :from AND a.timestamp < :to
+        ORDER BY a.timestamp DESC
+        """)
+    List<AuditLog> findAllByUserIdBetween(
+            @Param("userId") UUID userId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
 
+    // Purge : la trace reste (target_id), seul le lien vers la ressource disparaît.
+    // Aucune entrée ne précède la création de la ressource : since élague les partitions plus anciennes
+    @Modifying
+    @Query(value = """
+        UPDATE audit_log SET resource_id = NULL
+        WHERE resource_id IN (:resourceIds)
+          AND timestamp >= :since
+        """, nativeQuery = true)
+    int detachResources(@Param("resourceIds") Collection<UUID> resourceIds, @Param("since") Instant since);
+}
@@ -0,0 +1,10 @@
+package com.yow.access.repositories;
+
+/**
+ * {@link ResourceNodeView} plus the number of direct children, so a client can
+ * tell which nodes to expand lazily.
+ */
+public interface ResourceChildView extends ResourceNodeView {
+
+    Long getChildCount();
+}
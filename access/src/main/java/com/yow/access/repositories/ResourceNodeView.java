@@ -0,0 +1,18 @@
+package com.yow.access.repositories;
+
+import java.util.UUID;
+
+/**
+ * Flat projection of a resource row, enough to rebuild the hierarchy in memory
+ * without loading Resource entities.
+ */
+public interface ResourceNodeView {
+
+    UUID getId();
+
+    UUID getParentId();
+
+    String getName();
+
+    String getType();
+}
@@ -3,7 +3,12 @@ package com.yow.access.repositories;
 import com.yow.access.entities.Resource;
 import com.yow.access.entities.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,5 +28,205 @@ public interface ResourceRepository extends JpaRepository<Resource, UUID> {
     // Compter les ressources d'un tenant
     long countByTenantId(UUID tenantId);
 
-}
+    // Arêtes (id, parent_id, deleted_at) de toute la hiérarchie d'un tenant, sans charger les entités
+    @Query("SELECT r.id, r.parent.id, r.deletedAt FROM Resource r WHERE r.tenant.id = :tenantId")
+    List<Object[]> findTreeEdgesByTenantId(@Param("tenantId") UUID tenantId);
+
+    // Toutes les ressources non supprimées d'un tenant en lignes plates (un seul scan) ;
+    // les descendants d'une ressource supprimée restent orphelins et ne sont pas rattachés
+    @Query("""
+        SELECT r.id AS id, r.parent.id AS parentId, r.name AS name, r.type AS type
+        FROM Resource r
+        WHERE r.tenant.id = :tenantId
+          AND r.deletedAt IS NULL
+        """)
+    List<ResourceNodeView> findTreeNodesByTenantId(@Param("tenantId") UUID tenantId);
+
+    long countByParentIdAndDeletedAtIsNull(UUID parentId);
+
+    // Unicité du nom parmi les frères (enfants d'un même parent, ou racines du tenant)
+    boolean existsByParentIdAndNameAndDeletedAtIsNull(UUID parentId, String name);
+
+    boolean existsByTenantIdAndParentIsNullAndNameAndDeletedAtIsNull(UUID tenantId, String name);
+
+    /* =========================================================
+       PAGINATION KEYSET DES ENFANTS (parent_id, name, id)
+       ========================================================= */
+
+    // Première page des enfants d'un parent
+    @Query(value = """
+        SELECT r.id AS "id", r.parent_id AS "parentId", r.name AS "name", r.type AS "type",
+               (SELECT COUNT(*) FROM resource c
+                WHERE c.parent_id = r.id AND c.deleted_at IS NULL) AS "childCount"
+        FROM resource r
+        WHERE r.parent_id = :parentId
+          AND r.deleted_at IS NULL
+        ORDER BY r.name, r.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ResourceChildView> findChildPage(@Param("parentId") UUID parentId, @Param("limit") int limit);
+
+    // Page suivante : strictement après (afterName, afterId)
+    @Query(value = """
+        SELECT r.id AS "id", r.parent_id AS "parentId", r.name AS "name", r.type AS "type",
+               (SELECT COUNT(*) FROM resource c
+                WHERE c.parent_id = r.id AND c.deleted_at IS NULL) AS "childCount"
+        FROM resource r
+        WHERE r.parent_id = :parentId
+          AND r.deleted_at IS NULL
+          AND (r.name, r.id) > (:afterName, :afterId)
+        ORDER BY r.name, r.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ResourceChildView> findChildPageAfter(
+            @Param("parentId") UUID parentId,
+            @Param("afterName") String afterName,
+            @Param("afterId") UUID afterId,
+            @Param("limit") int limit
+    );
+
+    // Première page des enfants de chaque parent d'un niveau, en une requête
+    @Query(value = """
+        SELECT p.id AS "id", p.parent_id AS "parentId", p.name AS "name", p.type AS "type",
+               (SELECT COUNT(*) FROM resource c
+                WHERE c.parent_id = p.id AND c.deleted_at IS NULL) AS "childCount"
+        FROM (
+            SELECT r.id, r.parent_id, r.name, r.type,
+                   ROW_NUMBER() OVER (PARTITION BY r.parent_id ORDER BY r.name, r.id) AS rn
+            FROM resource r
+            WHERE r.parent_id IN (:parentIds)
+              AND r.deleted_at IS NULL
+        ) p
+        WHERE p.rn <= :limit
+        ORDER BY p.parent_id, p.rn
+        """, nativeQuery = true)
+    List<ResourceChildView> findChildPages(
+            @Param("parentIds") Collection<UUID> parentIds,
+            @Param("limit") int limit
+    );
+
+    /* =========================================================
+       CLOSURE TABLE (resource_ancestor)
+       ========================================================= */
+
+    // Ancêtres d'une ressource (elle-même incluse), du plus proche à la racine
+    @Query(value = """
+        SELECT ra.ancestor_id
+        FROM resource_ancestor ra
+        WHERE ra.descendant_id = :resourceId
+        ORDER BY ra.depth
+        """, nativeQuery = true)
+    List<UUID> findAncestorIds(@Param("resourceId") UUID resourceId);
+
+    // Sous-arbre complet (racine incluse) en lignes plates, parents avant enfants ;
+    // les ressources supprimées sont exclues, leurs descendants restent orphelins
+    @Query(value = """
+        SELECT r.id AS "id", r.parent_id AS "parentId", r.name AS "name", r.type AS "type"
+        FROM resource_ancestor ra
+        JOIN resource r ON r.id = ra.descendant_id
+        WHERE ra.ancestor_id = :rootId
+          AND r.deleted_at IS NULL
+        ORDER BY ra.depth
+        """, nativeQuery = true)
+    List<ResourceNodeView> findSubtreeNodes(@Param("rootId") UUID rootId);
+
+    // Ligne (r, r, 0) d'une ressource racine
+    @Modifying
+    @Query(value = """
+        INSERT INTO resource_ancestor (ancestor_id, descendant_id, depth)
+        VALUES (:resourceId, :resourceId, 0)
+        """, nativeQuery = true)
+    int insertRootPath(@Param("resourceId") UUID resourceId);
 
+    // Chemins d'un nouveau noeud : ceux de son parent + (child, child, 0)
+    @Modifying
+    @Query(value = """
+        INSERT INTO resource_ancestor (ancestor_id, descendant_id, depth)
+        SELECT ra.ancestor_id, :childId, ra.depth + 1
+        FROM resource_ancestor ra
+        WHERE ra.descendant_id = :parentId
+        UNION ALL
+        SELECT :childId, :childId, 0
+        """, nativeQuery = true)
+    int insertChildPaths(@Param("childId") UUID childId, @Param("parentId") UUID parentId);
+
+    // Déplacement, étape 1 : couper le sous-arbre de ses anciens ancêtres
+    @Modifying
+    @Query(value = """
+        DELETE FROM resource_ancestor
+        WHERE descendant_id IN (
+                SELECT sub.descendant_id FROM resource_ancestor sub WHERE sub.ancestor_id = :resourceId)
+          AND ancestor_id NOT IN (
+                SELECT sub.descendant_id FROM resource_ancestor sub WHERE sub.ancestor_id = :resourceId)
+        """, nativeQuery = true)
+    int detachSubtreePaths(@Param("resourceId") UUID resourceId);
+
+    // Déplacement, étape 2 : rattacher le sous-arbre aux ancêtres du nouveau parent
+    @Modifying
+    @Query(value = """
+        INSERT INTO resource_ancestor (ancestor_id, descendant_id, depth)
+        SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1
+        FROM resource_ancestor sup
+        CROSS JOIN resource_ancestor sub
+        WHERE sup.descendant_id = :newParentId
+          AND sub.ancestor_id = :resourceId
+        """, nativeQuery = true)
+    int attachSubtreePaths(@Param("resourceId") UUID resourceId, @Param("newParentId") UUID newParentId);
+
+    // Test de cycle : 1 si descendantId est dans le sous-arbre de ancestorId (lecture de la PK)
+    @Query(value = """
+        SELECT COUNT(*) FROM resource_ancestor
+        WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId
+        """, nativeQuery = true)
+    long countPath(@Param("ancestorId") UUID ancestorId, @Param("descendantId") UUID descendantId);
+
+    // Réécriture des chemins de tous les descendants en une instruction : oldPrefix -> newPrefix
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE resource
+        SET path = :newPrefix || SUBSTRING(path, :oldPrefixLength + 1)
+        WHERE id IN (
+                SELECT ra.descendant_id FROM resource_ancestor ra
+                WHERE ra.ancestor_id = :resourceId AND ra.depth > 0)
+        """, nativeQuery = true)
+    int rewriteDescendantPaths(
+            @Param("resourceId") UUID resourceId,
+            @Param("oldPrefixLength") int oldPrefixLength,
+            @Param("newPrefix") String newPrefix
+    );
+
+    /* =========================================================
+       PURGE DES SOUS-ARBRES SUPPRIMÉS
+       ========================================================= */
+
+    // Racines supprimées logiquement, les plus anciennes d'abord
+    @Query(value = """
+        SELECT r.id FROM resource r
+        WHERE r.deleted_at IS NOT NULL
+        ORDER BY r.deleted_at
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findSoftDeletedIds(@Param("limit") int limit);
+
+    @Query("SELECT r.tenant.id FROM Resource r WHERE r.id = :resourceId")
+    UUID findTenantIdById(@Param("resourceId") UUID resourceId);
+
+    // Prochain lot à purger : les plus profonds d'abord, un enfant part toujours avant son parent
+    @Query(value = """
+        SELECT ra.descendant_id FROM resource_ancestor ra
+        WHERE ra.ancestor_id = :rootId
+        ORDER BY ra.depth DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findPurgeChunk(@Param("rootId") UUID rootId, @Param("limit") int limit);
+
+    // Création la plus ancienne d'un lot : borne basse de ses entrées d'audit
+    @Query("SELECT MIN(r.createdAt) FROM Resource r WHERE r.id IN :ids")
+    Instant findOldestCreatedAt(@Param("ids") Collection<UUID> ids);
+
+    // Les lignes resource_ancestor suivent par ON DELETE CASCADE
+    @Modifying
+    @Query(value = "DELETE FROM resource WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+}
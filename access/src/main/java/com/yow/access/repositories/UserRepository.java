@@ -2,6 +2,8 @@ package com.yow.access.repositories;
 
 import com.yow.access.entities.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -19,4 +21,7 @@ public interface UserRepository extends JpaRepository<AppUser, UUID> {
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
+
+    @Query("SELECT u.enabled FROM AppUser u WHERE u.id = :userId")
+    Optional<Boolean> findEnabledById(@Param("userId") UUID userId);
 }
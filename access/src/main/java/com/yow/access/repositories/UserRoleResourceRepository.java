@@ -3,9 +3,11 @@ package com.yow.access.repositories;
 import com.yow.access.entities.UserRoleResource;
 import com.yow.access.entities.UserRoleResourceId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +25,14 @@ public interface UserRoleResourceRepository
            "WHERE urr.id.userId = :userId")
     List<UserRoleResource> findAllByUserIdWithResourceAndTenant(@Param("userId") UUID userId);
 
+    // Bindings with role, permissions and resource in one round trip (RBAC binding cache loader)
+    @Query("SELECT DISTINCT urr FROM UserRoleResource urr " +
+           "JOIN FETCH urr.role ro " +
+           "LEFT JOIN FETCH ro.permissions " +
+           "JOIN FETCH urr.resource " +
+           "WHERE urr.id.userId = :userId")
+    List<UserRoleResource> findAllByUserIdWithRoleAndResource(@Param("userId") UUID userId);
+
     boolean existsByIdUserIdAndIdRoleIdAndIdResourceId(
             UUID userId,
             Short roleId,
@@ -43,5 +53,12 @@ public interface UserRoleResourceRepository
 
     @Query("SELECT DISTINCT urr.user FROM UserRoleResource urr WHERE urr.resource.tenant.id = :tenantId")
     List<com.yow.access.entities.AppUser> findUsersByTenantId(@Param("tenantId") UUID tenantId);
-}
 
+    // Purge des sous-arbres supprimés : utilisateurs concernés, puis leurs bindings
+    @Query(value = "SELECT DISTINCT user_id FROM user_role_resource WHERE resource_id IN (:resourceIds)", nativeQuery = true)
+    List<UUID> findUserIdsByResourceIds(@Param("resourceIds") Collection<UUID> resourceIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_role_resource WHERE resource_id IN (:resourceIds)", nativeQuery = true)
+    int deleteAllByResourceIds(@Param("resourceIds") Collection<UUID> resourceIds);
+}
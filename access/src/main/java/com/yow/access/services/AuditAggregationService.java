@@ -0,0 +1,93 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.AuditAggregateBucket;
+import com.yow.access.exceptions.InvalidAggregationException;
+import com.yow.access.services.audit.AuditRollups;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Audit counts by action and outcome per hour or day, answered from the
+ * rollup tables maintained by {@link AuditRollups}: a query over months
+ * reads a few thousand pre-aggregated rows and never touches audit_log.
+ */
+@Service
+public class AuditAggregationService {
+
+    public enum Granularity {
+        HOUR("audit_rollup_hourly", Duration.ofDays(31)),
+        DAY("audit_rollup_daily", Duration.ofDays(3 * 366));
+
+        private final String table;
+        private final Duration maxRange;
+
+        Granularity(String table, Duration maxRange) {
+            this.table = table;
+            this.maxRange = maxRange;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditAggregationService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param tenantId null for all tenants (entries without tenant included)
+     * @param action   null for every action
+     */
+    @Transactional(readOnly = true)
+    public List<AuditAggregateBucket> aggregate(
+            UUID tenantId,
+            Granularity granularity,
+            Instant from,
+            Instant to,
+            String action
+    ) {
+        if (!from.isBefore(to)) {
+            throw new InvalidAggregationException("'from' must be before 'to'");
+        }
+        if (Duration.between(from, to).compareTo(granularity.maxRange) > 0) {
+            throw new InvalidAggregationException(
+                    "Range too large for " + granularity + " buckets (max " + granularity.maxRange.toDays() + " days)");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT bucket, action, outcome, SUM(count) AS total FROM ")
+                .append(granularity.table)
+                .append(" WHERE bucket >= ? AND bucket < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.from(from));
+        args.add(Timestamp.from(to));
+
+        if (tenantId != null) {
+            sql.append(" AND tenant_id = ?");
+            args.add(tenantId);
+        }
+        if (action != null) {
+            sql.append(" AND action = ?");
+            args.add(action);
+        }
+        // Plusieurs tenants : les lignes d'un même seau sont additionnées
+        sql.append(" GROUP BY bucket, action, outcome ORDER BY bucket, action, outcome");
+
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> new AuditAggregateBucket(
+                        rs.getTimestamp("bucket").toInstant(),
+                        rs.getString("action"),
+                        rs.getString("outcome"),
+                        rs.getLong("total")
+                ),
+                args.toArray()
+        );
+    }
+}
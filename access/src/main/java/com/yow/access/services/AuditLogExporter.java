@@ -0,0 +1,199 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.AuditLogFilter;
+import com.yow.access.services.audit.AuditDictionary;
+import com.yow.access.services.audit.AuditDictionary.Kind;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full audit exports, written while they are read.
+ * Rows come from a forward-only JDBC cursor (fixed fetch size) in
+ * (timestamp, id) order and are encoded one by one into the response, so
+ * memory stays constant whatever the number of rows. Dictionary codes are
+ * decoded from the in-memory {@link AuditDictionary}. Same filters as
+ * {@link AuditLogQueryService}, applied in SQL.
+ */
+@Service
+public class AuditLogExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    static final String[] COLUMNS = {
+            "id", "timestamp", "tenant_id", "user_id", "username", "action", "target_type",
+            "target_id", "resource_id", "outcome", "message", "ip_address", "user_agent",
+            "occurrences", "last_timestamp"
+    };
+
+    private static final String SELECT = """
+        SELECT a.id, a.timestamp, a.tenant_id, a.user_id, u.username, a.action_code, a.target_type_code,
+               a.target_id, a.resource_id, a.outcome_code, a.message, a.ip_address, a.user_agent_id,
+               a.occurrences, a.last_timestamp
+        FROM audit_log a
+        LEFT JOIN app_user u ON u.id = a.user_id
+        WHERE 1 = 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditDictionary dictionary;
+
+    public AuditLogExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AuditDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Read-only transaction so the PostgreSQL driver honours the fetch size
+     * (a cursor instead of the whole result set).
+     */
+    @Transactional(readOnly = true)
+    public void export(AuditLogFilter filter, Format format, boolean gzip, OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        AuditLogQueryService.appendFilters(filter, sql, args, dictionary);
+        sql.append(" ORDER BY a.timestamp, a.id");
+
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, WRITE_BUFFER) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER);
+            if (format == Format.CSV) {
+                writeCsv(sql.toString(), args, writer);
+            } else {
+                writeNdjson(sql.toString(), args, writer);
+            }
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* =========================================================
+       CSV (RFC 4180)
+       ========================================================= */
+
+    private void writeCsv(String sql, List<Object> args, Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+
+        stream(sql, args, rs -> {
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvField(value(rs, i)));
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Guillemets uniquement si nécessaire, guillemets internes doublés
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /* =========================================================
+       NDJSON : un objet JSON par ligne
+       ========================================================= */
+
+    private void writeNdjson(String sql, List<Object> args, Writer writer) {
+        // Pas de close : le flux de réponse (et le gzip) est terminé par export()
+        JsonGenerator gen = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .createGenerator(writer);
+        boolean[] any = {false};
+        stream(sql, args, rs -> {
+            gen.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                String value = value(rs, i);
+                if (value == null) {
+                    gen.writeNullProperty(COLUMNS[i]);
+                } else {
+                    gen.writeStringProperty(COLUMNS[i], value);
+                }
+            }
+            gen.writeEndObject();
+            any[0] = true;
+        });
+        if (any[0]) {
+            gen.writeRaw('\n');
+        }
+        gen.flush();
+    }
+
+    /* =========================================================
+       LECTURE PAR CURSEUR
+       ========================================================= */
+
+    private void stream(String sql, List<Object> args, RowWriter rowWriter) {
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(sql);
+                    statement.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.size(); i++) {
+                        statement.setObject(i + 1, args.get(i));
+                    }
+                    return statement;
+                },
+                rowWriter::write
+        );
+    }
+
+    // Colonne i de COLUMNS en texte, codes du dictionnaire décodés ; timestamp en ISO-8601 UTC
+    private String value(ResultSet rs, int column) throws SQLException {
+        return switch (COLUMNS[column]) {
+            case "timestamp", "last_timestamp" -> {
+                Timestamp timestamp = rs.getTimestamp(COLUMNS[column]);
+                yield timestamp != null ? timestamp.toInstant().toString() : null;
+            }
+            case "action" -> dictionary.decode(Kind.ACTION, AuditLogQueryService.code(rs, "action_code"));
+            case "target_type" -> dictionary.decode(Kind.TARGET_TYPE, AuditLogQueryService.code(rs, "target_type_code"));
+            case "outcome" -> dictionary.decode(Kind.OUTCOME, AuditLogQueryService.code(rs, "outcome_code"));
+            case "user_agent" -> dictionary.decodeUserAgent(rs.getObject("user_agent_id", Integer.class));
+            default -> {
+                Object value = rs.getObject(COLUMNS[column]);
+                yield value != null ? value.toString() : null;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException;
+    }
+}
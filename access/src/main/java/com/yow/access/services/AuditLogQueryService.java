@@ -0,0 +1,179 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.AuditLogEntryResponse;
+import com.yow.access.dto.AuditLogFilter;
+import com.yow.access.dto.AuditLogPage;
+import com.yow.access.exceptions.InvalidCursorException;
+import com.yow.access.services.audit.AuditDictionary;
+import com.yow.access.services.audit.AuditDictionary.Kind;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated reads of the audit log, newest first on (timestamp, id).
+ * Only the filters actually given end up in the WHERE clause, so each
+ * combination is served by one of the composite (…, timestamp, id) indexes
+ * and a page costs the same at the head of the log as a million rows deep.
+ */
+@Service
+public class AuditLogQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SELECT = """
+        SELECT a.id, a.action_code, a.timestamp, a.outcome_code, a.message, a.target_type_code,
+               a.occurrences, a.last_timestamp, u.username, r.type AS resource_type
+        FROM audit_log a
+        LEFT JOIN app_user u ON u.id = a.user_id
+        LEFT JOIN resource r ON r.id = a.resource_id
+        WHERE 1 = 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditDictionary dictionary;
+
+    public AuditLogQueryService(JdbcTemplate jdbcTemplate, AuditDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+    }
+
+    @Transactional(readOnly = true)
+    public AuditLogPage findPage(AuditLogFilter filter, String after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+
+        appendFilters(filter, sql, args, dictionary);
+        if (after != null && !after.isBlank()) {
+            Object[] cursor = decodeCursor(after);
+            sql.append(" AND (a.timestamp, a.id) < (?, ?)");
+            args.add(cursor[0]);
+            args.add(cursor[1]);
+        }
+
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        sql.append(" ORDER BY a.timestamp DESC, a.id DESC LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<AuditLogEntryResponse> rows = jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> {
+                    String username = rs.getString("username");
+                    String resourceType = rs.getString("resource_type");
+                    if (resourceType == null) {
+                        resourceType = dictionary.decode(Kind.TARGET_TYPE, code(rs, "target_type_code"));
+                    }
+                    String outcome = dictionary.decode(Kind.OUTCOME, code(rs, "outcome_code"));
+                    String message = rs.getString("message");
+                    Timestamp lastTimestamp = rs.getTimestamp("last_timestamp");
+                    return new AuditLogEntryResponse(
+                            rs.getObject("id", UUID.class),
+                            dictionary.decode(Kind.ACTION, code(rs, "action_code")),
+                            rs.getTimestamp("timestamp").toInstant(),
+                            username != null ? username : "Système",
+                            resourceType != null ? resourceType : "",
+                            outcome != null ? outcome : "",
+                            message != null ? message : "",
+                            rs.getInt("occurrences"),
+                            lastTimestamp != null ? lastTimestamp.toInstant() : null
+                    );
+                },
+                args.toArray()
+        );
+
+        if (rows.size() <= pageSize) {
+            return new AuditLogPage(rows, null);
+        }
+        AuditLogEntryResponse last = rows.get(pageSize - 1);
+        return new AuditLogPage(
+                rows.subList(0, pageSize),
+                encodeCursor(last.getTimestamp(), last.getId())
+        );
+    }
+
+    /**
+     * Appends one condition per filter actually given, so the planner can pick
+     * the matching composite index and prune the monthly partitions on timestamp.
+     * Names are compared through their dictionary code; a name never recorded
+     * matches nothing.
+     */
+    static void appendFilters(AuditLogFilter filter, StringBuilder sql, List<Object> args, AuditDictionary dictionary) {
+        if (filter.tenantId() != null) {
+            sql.append(" AND a.tenant_id = ?");
+            args.add(filter.tenantId());
+        }
+        if (filter.userId() != null) {
+            sql.append(" AND a.user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.action() != null) {
+            sql.append(" AND a.action_code = ?");
+            args.add(codeOrUnknown(dictionary, Kind.ACTION, filter.action()));
+        }
+        if (filter.outcome() != null) {
+            sql.append(" AND a.outcome_code = ?");
+            args.add(codeOrUnknown(dictionary, Kind.OUTCOME, filter.outcome()));
+        }
+        if (filter.targetType() != null) {
+            sql.append(" AND a.target_type_code = ?");
+            args.add(codeOrUnknown(dictionary, Kind.TARGET_TYPE, filter.targetType()));
+        }
+        if (filter.subtreeOf() != null) {
+            // Descendants via la table de fermeture, puis index (resource_id, timestamp, id)
+            sql.append(" AND a.resource_id IN (SELECT ra.descendant_id FROM resource_ancestor ra WHERE ra.ancestor_id = ?)");
+            args.add(filter.subtreeOf());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND a.timestamp >= ?");
+            args.add(Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND a.timestamp < ?");
+            args.add(Timestamp.from(filter.to()));
+        }
+    }
+
+    private static short codeOrUnknown(AuditDictionary dictionary, Kind kind, String name) {
+        Short code = dictionary.find(kind, name);
+        return code != null ? code : AuditDictionary.UNKNOWN;
+    }
+
+    // SMALLINT éventuellement NULL
+    static Short code(ResultSet rs, String column) throws SQLException {
+        short code = rs.getShort(column);
+        return rs.wasNull() ? null : code;
+    }
+
+    // Curseur opaque : base64url("<timestamp ISO-8601>|<id>")
+    private static String encodeCursor(Instant timestamp, UUID id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            Instant timestamp = Instant.parse(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return new Object[]{Timestamp.from(timestamp), id};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -1,22 +1,42 @@
 package com.yow.access.services;
 
 import com.yow.access.entities.*;
-import com.yow.access.repositories.AuditLogRepository;
+import com.yow.access.services.audit.AuditDenialCoalescer;
+import com.yow.access.services.audit.AuditLogWriter;
+import com.yow.access.services.audit.AuditMode;
+import com.yow.access.services.audit.AuditRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Entry point for audit entries. The write itself is delegated to
+ * {@link AuditLogWriter}: successful actions are {@link AuditMode#DURABLE}
+ * (committed with the business change), failures and the actions listed in
+ * {@code audit.fire-and-forget-actions} are {@link AuditMode#FIRE_AND_FORGET}
+ * (they must survive the rollback that usually follows a denial).
+ * Fire-and-forget failures go through {@link AuditDenialCoalescer}, so a
+ * client repeating a denied call costs one row per window, not per attempt.
+ */
 @Service
 public class AuditLogService {
 
-    private final AuditLogRepository repository;
+    private final AuditLogWriter writer;
+    private final AuditDenialCoalescer coalescer;
+    private final Set<String> fireAndForgetActions;
 
-    public AuditLogService(AuditLogRepository repository) {
-        this.repository = repository;
+    public AuditLogService(
+            AuditLogWriter writer,
+            AuditDenialCoalescer coalescer,
+            @Value("${audit.fire-and-forget-actions:}") String[] fireAndForgetActions
+    ) {
+        this.writer = writer;
+        this.coalescer = coalescer;
+        this.fireAndForgetActions = Set.of(fireAndForgetActions);
     }
 
-    @Transactional
     public void log(
             Tenant tenant,
             AppUser user,
@@ -28,6 +48,34 @@ public class AuditLogService {
             String message,
             String ipAddress,
             String userAgent
+    ) {
+        log(
+                modeFor(action, outcome),
+                tenant,
+                user,
+                resource,
+                action,
+                targetType,
+                targetId,
+                outcome,
+                message,
+                ipAddress,
+                userAgent
+        );
+    }
+
+    public void log(
+            AuditMode mode,
+            Tenant tenant,
+            AppUser user,
+            Resource resource,
+            String action,
+            String targetType,
+            UUID targetId,
+            String outcome,
+            String message,
+            String ipAddress,
+            String userAgent
     ) {
         AuditLog log =
                 AuditLogFactory.create(
@@ -43,6 +91,19 @@ public class AuditLogService {
                         userAgent
                 );
 
-        repository.save(log);
+        AuditRecord record = AuditRecord.of(log);
+        if (mode == AuditMode.FIRE_AND_FORGET && !"SUCCESS".equals(outcome)) {
+            // Refus répétés : la première occurrence part tout de suite, les suivantes sont fusionnées
+            coalescer.submit(record);
+        } else {
+            writer.write(record, mode);
+        }
+    }
+
+    AuditMode modeFor(String action, String outcome) {
+        if (!"SUCCESS".equals(outcome) || fireAndForgetActions.contains(action)) {
+            return AuditMode.FIRE_AND_FORGET;
+        }
+        return AuditMode.DURABLE;
     }
 }
@@ -1,15 +1,21 @@
 package com.yow.access.services;
 
 import com.yow.access.config.email.EmailService;
+import com.yow.access.config.security.PasswordHasher;
+import com.yow.access.config.security.jwt.AccessTokenRevocations;
 import com.yow.access.config.security.jwt.JwtService;
+import com.yow.access.config.security.jwt.VerifiedToken;
 import com.yow.access.dto.*;
 import com.yow.access.entities.AppUser;
+import com.yow.access.events.UserAccessChangedEvent;
 import com.yow.access.repositories.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -28,9 +34,14 @@ public class AuthService {
     private final ResourceRepository resourceRepository;
     private final RoleRepository roleRepository;
     private final UserRoleResourceRepository userRoleResourceRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocations accessTokenRevocations;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
 
     public AuthService(
             UserRepository userRepository,
@@ -38,18 +49,29 @@ public class AuthService {
             ResourceRepository resourceRepository,
             RoleRepository roleRepository,
             UserRoleResourceRepository userRoleResourceRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             JwtService jwtService,
-            EmailService emailService
+            RefreshTokenService refreshTokenService,
+            AccessTokenRevocations accessTokenRevocations,
+            EmailService emailService,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
     ) {
         this.userRepository = userRepository;
         this.tenantRepository = tenantRepository;
         this.resourceRepository = resourceRepository;
         this.roleRepository = roleRepository;
         this.userRoleResourceRepository = userRoleResourceRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.accessTokenRevocations = accessTokenRevocations;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        // Transactions explicites : le hachage (pool dédié) se fait entre deux, sans connexion tenue
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     private static final String GENERIC_AUTH_ERROR = "Email ou mot de passe incorrect";
@@ -60,27 +82,47 @@ public class AuthService {
     /**
      * Enregistre un nouveau tenant et son administrateur
      */
-    @Transactional
     public AuthResponse registerTenant(RegisterTenantRequest request) {
         log.debug("Enregistrement d'un nouveau tenant: {}", request.getOrganizationName());
 
+        // 0. Mot de passe vérifié (compte existant) ou haché (nouveau compte) hors transaction
+        AppUser existing = readOnlyTransaction.execute(status ->
+                userRepository.findByEmail(request.getEmail()).orElse(null));
+        String passwordHash = null;
+        if (existing != null) {
+            if (!passwordHasher.matches(request.getPassword(), existing.getPasswordHash())) {
+                throw new IllegalArgumentException("Cet email existe déjà. Si c'est votre compte, le mot de passe est incorrect.");
+            }
+        } else {
+            passwordHash = passwordHasher.encode(request.getPassword());
+        }
+        String newPasswordHash = passwordHash;
+        return transaction.execute(status -> createTenant(request, newPasswordHash));
+    }
+
+    private AuthResponse createTenant(RegisterTenantRequest request, String newPasswordHash) {
         // 1. Gestion de l'utilisateur Admin
         AppUser adminUser;
         boolean isNewUser = false;
 
         if (userRepository.existsByEmail(request.getEmail())) {
-            // Utilisateur existant : on vérifie son mot de passe
-            adminUser = userRepository.findByEmail(request.getEmail()).orElseThrow();
-            if (!passwordEncoder.matches(request.getPassword(), adminUser.getPasswordHash())) {
-                throw new IllegalArgumentException("Cet email existe déjà. Si c'est votre compte, le mot de passe est incorrect.");
+            if (newPasswordHash != null) {
+                // Compte créé entre-temps : son mot de passe n'a pas été vérifié
+                throw new IllegalArgumentException("Un utilisateur avec cet email existe déjà.");
             }
+            // Utilisateur existant : mot de passe déjà vérifié
+            adminUser = userRepository.findByEmail(request.getEmail()).orElseThrow();
             log.info("Utilisateur existant '{}' deviendra admin du nouveau tenant.", adminUser.getEmail());
         } else {
+            if (newPasswordHash == null) {
+                // Compte supprimé entre-temps
+                throw new IllegalArgumentException(GENERIC_AUTH_ERROR);
+            }
             // Nouvel utilisateur
             adminUser = new AppUser();
             adminUser.setUsername(request.getEmail()); // Username par défaut = email
             adminUser.setEmail(request.getEmail());
-            adminUser.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+            adminUser.setPasswordHash(newPasswordHash);
             adminUser.setEnabled(true);
             adminUser.setAccountActivated(true);
             adminUser.setMustChangePassword(false);
@@ -109,7 +151,8 @@ public class AuthService {
 
         // 4. Création de la Ressource Racine
         com.yow.access.entities.Resource rootResource = com.yow.access.entities.ResourceFactory.createRootResource(tenant, request.getOrganizationName());
-        resourceRepository.save(rootResource);
+        resourceRepository.saveAndFlush(rootResource);
+        resourceRepository.insertRootPath(rootResource.getId());
 
         // 5. Assignation du Rôle TENANT_ADMIN
         com.yow.access.entities.Role adminRole = roleRepository.findByName("TENANT_ADMIN")
@@ -119,6 +162,7 @@ public class AuthService {
         // Ici c'est une nouvelle ressource donc pas de doublon possible.
         com.yow.access.entities.UserRoleResource urr = com.yow.access.entities.UserRoleResourceFactory.create(adminUser, adminRole, rootResource);
         userRoleResourceRepository.save(urr);
+        eventPublisher.publishEvent(new UserAccessChangedEvent(adminUser.getId()));
 
         // 6. Génération Token et Réponse
         // On récupère TOUS les rôles de l'utilisateur (y compris ceux d'autres tenants s'il en a)
@@ -137,7 +181,9 @@ public class AuthService {
         log.info("Tenant '{}' créé avec succès par {}", tenant.getName(), adminUser.getEmail());
 
         return AuthResponse.builder()
-                .token(jwtService.generateToken(adminUser.getId(), adminUser.getEmail(), roles))
+                .token(jwtService.generateToken(adminUser.getId(), adminUser.getEmail(), roles, adminUser.getSecurityStamp()))
+                .refreshToken(refreshTokenService.issue(adminUser))
+                .expiresIn(jwtService.getExpiration().toSeconds())
                 .userId(adminUser.getId())
                 .email(adminUser.getEmail())
                 .username(adminUser.getUsername())
@@ -150,10 +196,15 @@ public class AuthService {
      * Enregistre un nouvel utilisateur simple (sans création de tenant)
      * L'utilisateur pourra ensuite être invité à rejoindre des organisations
      */
-    @Transactional
     public AuthResponse registerUser(RegisterUserRequest request) {
         log.debug("Enregistrement d'un nouvel utilisateur: {}", request.getEmail());
 
+        // Hachage hors transaction ; les unicités sont vérifiées ensuite
+        String passwordHash = passwordHasher.encode(request.getPassword());
+        return transaction.execute(status -> createRegisteredUser(request, passwordHash));
+    }
+
+    private AuthResponse createRegisteredUser(RegisterUserRequest request, String passwordHash) {
         // Vérifications préalables
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Un utilisateur avec cet email existe déjà.");
@@ -167,7 +218,7 @@ public class AuthService {
         AppUser newUser = new AppUser();
         newUser.setUsername(request.getUsername());
         newUser.setEmail(request.getEmail());
-        newUser.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        newUser.setPasswordHash(passwordHash);
         newUser.setEnabled(true);
         newUser.setAccountActivated(true);
         newUser.setMustChangePassword(false);
@@ -179,52 +230,43 @@ public class AuthService {
 
         // Générer un token JWT pour connexion automatique
         // L'utilisateur n'a aucun rôle pour le moment, il devra être invité à une organisation
-        String token = jwtService.generateToken(newUser.getId(), newUser.getEmail(), Collections.emptyList());
-
-        return new AuthResponse(
-                token,
-                newUser.getId(),
-                newUser.getEmail(),
-                newUser.getUsername(),
-                Collections.emptyList() // Pas de rôles initialement
-        );
+        String token = jwtService.generateToken(newUser.getId(), newUser.getEmail(), Collections.emptyList(), newUser.getSecurityStamp());
+
+        return AuthResponse.builder()
+                .token(token)
+                .refreshToken(refreshTokenService.issue(newUser))
+                .expiresIn(jwtService.getExpiration().toSeconds())
+                .userId(newUser.getId())
+                .email(newUser.getEmail())
+                .username(newUser.getUsername())
+                .roles(Collections.emptyList()) // Pas de rôles initialement
+                .build();
     }
 
     /**
      * Authentifie un utilisateur et retourne un token JWT
      */
-    @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
         log.debug("Tentative de connexion pour l'email: {}", request.getEmail());
 
-        AppUser user = userRepository.findByEmail(request.getEmail())
+        AppUser user = readOnlyTransaction.execute(status -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> {
                     log.warn("Tentative de connexion avec email inexistant: {}", request.getEmail());
                     return new IllegalArgumentException(GENERIC_AUTH_ERROR);
                 });
 
+        // Vérification du mot de passe sans transaction ouverte
         validateUserForLogin(user, request.getPassword());
 
-        // Récupérer les rôles de l'utilisateur
-        List<String> roles = userRoleResourceRepository.findAllByUserId(user.getId())
-                .stream()
-                .map(urr -> urr.getRole().getName())
-                .collect(Collectors.toList());
-
-        // Hack temporaire pour l'admin par défaut s'il n'a pas de rôle en base
-        if (roles.isEmpty() && (user.getUsername().equals("admin") || user.getEmail().equals("admin@example.com"))) {
-            roles.add("ADMIN");
-        }
-        
-        if (roles.isEmpty() && (user.getUsername().equals("testuser") || user.getEmail().equals("test@yow.com"))) {
-            roles.add("USER");
-        }
+        List<String> roles = loadRoles(user);
 
-        String token = jwtService.generateToken(user.getId(), user.getEmail(), roles);
+        String token = jwtService.generateToken(user.getId(), user.getEmail(), roles, user.getSecurityStamp());
         log.info("Connexion réussie pour l'utilisateur: {}", user.getEmail());
 
         return AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user))
+                .expiresIn(jwtService.getExpiration().toSeconds())
                 .userId(user.getId())
                 .email(user.getEmail())
                 .username(user.getUsername())
@@ -233,6 +275,64 @@ public class AuthService {
                 .build();
     }
 
+    /**
+     * Échange un refresh token contre un nouveau token d'accès (rôles relus en base)
+     * et le refresh token suivant ; l'ancien ne peut plus servir
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        AppUser user = rotation.user();
+        List<String> roles = loadRoles(user);
+
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(user.getId(), user.getEmail(), roles, user.getSecurityStamp()))
+                .refreshToken(rotation.refreshToken())
+                .expiresIn(jwtService.getExpiration().toSeconds())
+                .userId(user.getId())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .roles(roles)
+                .mustChangePassword(user.isMustChangePassword())
+                .build();
+    }
+
+    /**
+     * Déconnexion : le token d'accès est révoqué jusqu'à son expiration,
+     * la famille du refresh token (si fourni) aussi
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            VerifiedToken verified = jwtService.verify(accessToken).orElse(null);
+            if (verified != null && verified.tokenId() != null) {
+                accessTokenRevocations.revoke(verified.tokenId(), verified.expiresAt());
+            }
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    /**
+     * Rôles portés par le token d'accès
+     */
+    private List<String> loadRoles(AppUser user) {
+        List<String> roles = readOnlyTransaction.execute(status ->
+                userRoleResourceRepository.findAllByUserId(user.getId())
+                        .stream()
+                        .map(urr -> urr.getRole().getName())
+                        .collect(Collectors.toList()));
+
+        // Hack temporaire pour l'admin par défaut s'il n'a pas de rôle en base
+        if (roles.isEmpty() && (user.getUsername().equals("admin") || user.getEmail().equals("admin@example.com"))) {
+            roles.add("ADMIN");
+        }
+        
+        if (roles.isEmpty() && (user.getUsername().equals("testuser") || user.getEmail().equals("test@yow.com"))) {
+            roles.add("USER");
+        }
+        return roles;
+    }
+
     /**
      * Valide l'utilisateur pour la connexion
      */
@@ -247,7 +347,7 @@ public class AuthService {
             throw new IllegalStateException("Votre compte a été désactivé. Contactez l'administrateur.");
         }
 
-        if (!passwordEncoder.matches(providedPassword, user.getPasswordHash())) {
+        if (!passwordHasher.matches(providedPassword, user.getPasswordHash())) {
             log.warn("Mot de passe incorrect pour l'utilisateur: {}", user.getEmail());
             throw new IllegalArgumentException(GENERIC_AUTH_ERROR);
         }
@@ -301,13 +401,19 @@ public class AuthService {
         }
     }
 
-    @Transactional
     public AuthResponse activateAccount(ActivateAccountRequest request) {
         log.debug("Tentative d'activation de compte avec token: {}", maskToken(request.getToken()));
         if (!request.getPassword().equals(request.getConfirmPassword())) {
             throw new IllegalArgumentException("Les mots de passe ne correspondent pas.");
         }
-        AppUser user = userRepository.findByActivationToken(request.getToken())
+        // Lien vérifié avant de hacher, puis revérifié dans la transaction d'écriture
+        readOnlyTransaction.executeWithoutResult(status -> findActivatableUser(request.getToken()));
+        String passwordHash = passwordHasher.encode(request.getPassword());
+        return transaction.execute(status -> activate(request.getToken(), passwordHash));
+    }
+
+    private AppUser findActivatableUser(String activationToken) {
+        AppUser user = userRepository.findByActivationToken(activationToken)
                 .orElseThrow(() -> new IllegalArgumentException("Le lien d'activation est invalide ou a expiré."));
         if (user.getActivationTokenExpiry().isBefore(Instant.now())) {
             throw new IllegalStateException("Le lien d'activation a expiré.");
@@ -315,15 +421,22 @@ public class AuthService {
         if (user.isAccountActivated()) {
             throw new IllegalStateException("Ce compte est déjà activé.");
         }
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        return user;
+    }
+
+    private AuthResponse activate(String activationToken, String passwordHash) {
+        AppUser user = findActivatableUser(activationToken);
+        user.setPasswordHash(passwordHash);
         user.setAccountActivated(true);
         user.setActivationToken(null);
         user.setActivationTokenExpiry(null);
         userRepository.save(user);
         
-        String token = jwtService.generateToken(user.getId(), user.getEmail(), Collections.emptyList());
+        String token = jwtService.generateToken(user.getId(), user.getEmail(), Collections.emptyList(), user.getSecurityStamp());
         return AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user))
+                .expiresIn(jwtService.getExpiration().toSeconds())
                 .userId(user.getId())
                 .email(user.getEmail())
                 .username(user.getUsername())
@@ -346,21 +459,35 @@ public class AuthService {
         }
     }
 
-    @Transactional
     public void resetPassword(ResetPasswordRequest request) {
         if (!request.getPassword().equals(request.getConfirmPassword())) {
             throw new IllegalArgumentException("Les mots de passe ne correspondent pas.");
         }
-        AppUser user = userRepository.findByActivationToken(request.getToken())
+        // Lien vérifié avant de hacher, puis revérifié dans la transaction d'écriture
+        readOnlyTransaction.executeWithoutResult(status -> findResettableUser(request.getToken()));
+        String passwordHash = passwordHasher.encode(request.getPassword());
+        transaction.executeWithoutResult(status -> applyPasswordReset(request.getToken(), passwordHash));
+    }
+
+    private AppUser findResettableUser(String resetToken) {
+        AppUser user = userRepository.findByActivationToken(resetToken)
                 .orElseThrow(() -> new IllegalArgumentException("Lien invalide ou expiré."));
         if (user.getActivationTokenExpiry().isBefore(Instant.now())) {
             throw new IllegalStateException("Lien expiré.");
         }
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        return user;
+    }
+
+    private void applyPasswordReset(String resetToken, String passwordHash) {
+        AppUser user = findResettableUser(resetToken);
+        user.setPasswordHash(passwordHash);
         user.setActivationToken(null);
         user.setActivationTokenExpiry(null);
         user.setMustChangePassword(false);
+        // Les sessions ouvertes avec l'ancien mot de passe sont coupées
+        user.bumpSecurityStamp();
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccessChangedEvent(user.getId()));
     }
 
     private String generateActivationToken() {
@@ -1,10 +1,18 @@
 package com.yow.access.services;
 
 import com.yow.access.entities.Resource;
-import com.yow.access.entities.UserRoleResource;
 import com.yow.access.exceptions.AccessDeniedException;
 import com.yow.access.repositories.ResourceRepository;
-import com.yow.access.repositories.UserRoleResourceRepository;
+import com.yow.access.services.rbac.CompiledRole;
+import com.yow.access.services.rbac.PermissionHandle;
+import com.yow.access.services.rbac.PermissionScope;
+import com.yow.access.services.rbac.ResourceTreeIndex;
+import com.yow.access.services.rbac.RoleCatalog;
+import com.yow.access.services.rbac.TenantTree;
+import com.yow.access.services.rbac.UserBindingCache;
+import com.yow.access.services.rbac.UserBindings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -12,15 +20,40 @@ import java.util.*;
 @Service
 public class AuthorizationService {
 
-    private final UserRoleResourceRepository urrRepository;
+    private static final Logger log = LoggerFactory.getLogger(AuthorizationService.class);
+
+    private static final List<String> ADMIN_UI_PERMISSIONS = List.of(
+            "RESOURCE_CREATE",
+            "RESOURCE_READ",
+            "RESOURCE_DELETE",
+            "RESOURCE_MOVE",
+            "USER_CREATE",
+            "ASSIGN_ROLE",
+            "REMOVE_ROLE"
+    );
+
+    private final UserBindingCache bindingCache;
     private final ResourceRepository resourceRepository;
+    private final RoleCatalog roleCatalog;
+    private final ResourceTreeIndex treeIndex;
 
     public AuthorizationService(
-            UserRoleResourceRepository urrRepository,
-            ResourceRepository resourceRepository
+            UserBindingCache bindingCache,
+            ResourceRepository resourceRepository,
+            RoleCatalog roleCatalog,
+            ResourceTreeIndex treeIndex
     ) {
-        this.urrRepository = urrRepository;
+        this.bindingCache = bindingCache;
         this.resourceRepository = resourceRepository;
+        this.roleCatalog = roleCatalog;
+        this.treeIndex = treeIndex;
+    }
+
+    /**
+     * Resolves a permission name once, so callers can reuse the handle.
+     */
+    public PermissionHandle permission(String permissionName) {
+        return roleCatalog.permission(permissionName);
     }
 
     /**
@@ -33,11 +66,19 @@ public class AuthorizationService {
             UUID resourceId,
             String permissionName
     ) {
-        Resource resource = resourceRepository.findById(resourceId)
-                .orElseThrow(() -> new IllegalStateException("Resource not found"));
+        checkPermissionHandle(userId, resourceId, roleCatalog.permission(permissionName));
+    }
 
-        if (!hasPermission(userId, permissionName, resource)) {
-            throw new AccessDeniedException("Permission denied: " + permissionName);
+    /**
+     * Same as {@link #checkPermission(UUID, UUID, String)} with a pre-resolved permission.
+     */
+    public void checkPermissionHandle(
+            UUID userId,
+            UUID resourceId,
+            PermissionHandle permission
+    ) {
+        if (!isGranted(userId, permission, resourceId)) {
+            throw new AccessDeniedException("Permission denied: " + permission.getName());
         }
     }
 
@@ -49,169 +90,420 @@ public class AuthorizationService {
             UUID userId,
             String permissionName
     ) {
-        boolean allowed = urrRepository.findAllByUserId(userId)
-                .stream()
-                .anyMatch(urr -> urr.getRole().getPermissions()
-                        .stream()
-                        .anyMatch(p -> p.getName().equals(permissionName)));
+        checkGlobalPermissionHandle(userId, roleCatalog.permission(permissionName));
+    }
+
+    /**
+     * Same as {@link #checkGlobalPermission(UUID, String)} with a pre-resolved permission.
+     */
+    public void checkGlobalPermissionHandle(
+            UUID userId,
+            PermissionHandle permission
+    ) {
+        UserBindings bindings = bindingCache.get(userId);
+        boolean allowed = false;
+        for (int i = 0; i < bindings.size(); i++) {
+            if (bindings.role(i).has(permission)) {
+                allowed = true;
+                break;
+            }
+        }
 
         if (!allowed) {
-            throw new AccessDeniedException("Permission denied: " + permissionName);
+            throw new AccessDeniedException("Permission denied: " + permission.getName());
         }
     }
 
     /* ===== INTERNAL RBAC ENGINE ===== */
     /**
      * Core RBAC permission check with hierarchy inheritance.
-     * Walks up the resource tree until a matching permission is found.
-     * Protected against circular references.
+     * Matches the bindings against the target and each of its ancestors.
      */
     public boolean hasPermission(
             UUID userId,
             String permissionName,
             Resource target
+    ) {
+        return isGranted(userId, roleCatalog.permission(permissionName), target);
+    }
+
+    /**
+     * Same as {@link #hasPermission(UUID, String, Resource)} with a pre-resolved
+     * permission: bindings come compiled from the {@link UserBindingCache} and
+     * are matched as Euler-tour intervals of the tenant tree, so inheritance
+     * costs a couple of int comparisons per binding instead of an ancestor walk.
+     */
+    public boolean isGranted(
+            UUID userId,
+            PermissionHandle permission,
+            Resource target
     ) {
         // Early returns for invalid inputs
         if (target == null) {
             return false;
         }
 
-        List<UserRoleResource> bindings = urrRepository.findAllByUserId(userId);
-        System.out.println("DEBUG: Check Permission '" + permissionName + "' for User " + userId + " on Resource " + target.getName() + " (" + target.getId() + ")");
-        System.out.println("DEBUG: Found " + bindings.size() + " bindings for user.");
+        UserBindings bindings = bindingCache.get(userId);
 
         // No bindings = no permissions
-        if (bindings == null || bindings.isEmpty()) {
-            System.out.println("DEBUG: No bindings found. Access denied.");
+        if (bindings.isEmpty()) {
+            log.debug("No bindings for user {}: {} denied on {}", userId, permission, target.getId());
+            return false;
+        }
+
+        // Soft-deleted (or under a soft-deleted ancestor): gone, even for ADMIN
+        if (isDeleted(target)) {
             return false;
         }
 
-        // Walks up the resource tree until a matching permission is found.
-        // Protected against circular references.
         // ADMIN role has full access.
-        for (UserRoleResource urr : bindings) {
-            if (urr.getRole().getName().equals("ADMIN")) {
-                System.out.println("DEBUG: ADMIN role found. Access granted.");
-                return true;
-            }
+        if (bindings.isAdmin()) {
+            return true;
         }
 
-        Resource current = target;
-        Set<UUID> visitedResources = new HashSet<>(); // Anti-loop protection
+        // Bindings never cross tenants
+        UUID tenantId = target.getTenant() != null ? target.getTenant().getId() : null;
+        if (tenantId != null && !bindings.touchesTenant(tenantId)) {
+            log.debug("{} denied for user {} on {} (no binding in tenant)", permission, userId, target.getId());
+            return false;
+        }
 
-        // Walk up the resource hierarchy
-        while (current != null) {
-            System.out.println("DEBUG: Checking at resource level: " + current.getName() + " (" + current.getId() + ")");
-            // Detect and break circular references
-            if (visitedResources.contains(current.getId())) {
-                System.out.println("DEBUG: Circular reference detected.");
-                break; // Circular reference detected
+        if (tenantId != null) {
+            TenantTree tree = treeIndex.get(tenantId);
+            int node = tree.indexOf(target.getId());
+            if (node >= 0) {
+                return bindings.intervals(tree).grants(node, permission);
             }
-            visitedResources.add(current.getId());
+        }
 
+        int n = bindings.size();
+
+        // Not in the tree index yet: walk up the resource hierarchy (closure table)
+        for (UUID currentId : lineage(target)) {
             // Check all bindings for current resource level
-            for (UserRoleResource urr : bindings) {
-                // Skip bindings for different resources
-                if (!urr.getResource().getId().equals(current.getId())) {
+            for (int i = 0; i < n; i++) {
+                if (currentId.equals(bindings.resourceId(i)) && bindings.role(i).has(permission)) {
+                    return true; // Permission granted
+                }
+            }
+        }
+
+        log.debug("{} denied for user {} on {}", permission, userId, target.getId());
+        return false; // No matching permission found in hierarchy
+    }
+
+    /**
+     * Id-based check used by {@link #checkPermissionHandle(UUID, UUID, PermissionHandle)}:
+     * with warm caches the resource is located in the tree of one of the user's
+     * tenants and no SQL is issued at all.
+     * @throws IllegalStateException if resource not found
+     */
+    public boolean isGranted(
+            UUID userId,
+            PermissionHandle permission,
+            UUID resourceId
+    ) {
+        UserBindings bindings = bindingCache.get(userId);
+
+        if (!bindings.isEmpty() && !bindings.isAdmin()) {
+            for (TenantTree tree : trees(bindings)) {
+                int node = tree.indexOf(resourceId);
+                if (node >= 0) {
+                    return bindings.intervals(tree).grants(node, permission);
+                }
+                if (tree.isDeleted(resourceId)) {
+                    throw new IllegalStateException("Resource not found");
+                }
+            }
+        }
+
+        Resource resource = resourceRepository.findById(resourceId)
+                .filter(r -> !isDeleted(r))
+                .orElseThrow(() -> new IllegalStateException("Resource not found"));
+        return isGranted(userId, permission, resource);
+    }
+
+    /**
+     * Decision matrix for N resources x M permissions, in request order.
+     * Bindings are loaded once; the roles applying to each resource are OR-ed
+     * into one bitset, so each permission is then a single mask test.
+     * Resources outside the tree index are loaded in one query and reuse the
+     * bits already computed for the ancestors they share.
+     * Unknown and soft-deleted resources are denied everything.
+     */
+    public Map<UUID, Map<String, Boolean>> checkBatch(
+            UUID userId,
+            Collection<UUID> resourceIds,
+            Collection<String> permissionNames
+    ) {
+        List<PermissionHandle> handles = new ArrayList<>(permissionNames.size());
+        for (String name : permissionNames) {
+            handles.add(roleCatalog.permission(name));
+        }
+
+        UserBindings bindings = bindingCache.get(userId);
+        Map<UUID, long[]> granted = new HashMap<>();
+
+        if (bindings.isAdmin()) {
+            // ADMIN: everything, on every resource that exists
+            long[] all = new long[0];
+            for (Resource resource : resourceRepository.findAllById(new HashSet<>(resourceIds))) {
+                if (!isDeleted(resource)) {
+                    granted.put(resource.getId(), all);
+                }
+            }
+        } else if (!bindings.isEmpty()) {
+            List<TenantTree> trees = trees(bindings);
+            List<UUID> unindexed = new ArrayList<>();
+            for (UUID resourceId : resourceIds) {
+                if (granted.containsKey(resourceId)) {
                     continue;
                 }
-                
-                System.out.println("DEBUG: Matching resource binding found. Role: " + urr.getRole().getName());
-                
-                // Debug permissions
-                urr.getRole().getPermissions().forEach(p -> System.out.println("DEBUG:   - Has permission: " + p.getName()));
-
-                // Check if role has the required permission
-                boolean hasPermission = urr.getRole().getPermissions()
-                        .stream()
-                        .anyMatch(p -> p.getName().equals(permissionName));
-
-                if (hasPermission) {
-                    System.out.println("DEBUG: Permission MATCHED! Access granted.");
-                    return true; // Permission granted
+                long[] bits = null;
+                boolean deleted = false;
+                for (TenantTree tree : trees) {
+                    int node = tree.indexOf(resourceId);
+                    if (node >= 0) {
+                        bits = roleCatalog.newBitset();
+                        bindings.intervals(tree).collect(node, bits);
+                        break;
+                    }
+                    deleted |= tree.isDeleted(resourceId);
+                }
+                if (bits != null) {
+                    granted.put(resourceId, bits);
+                } else if (!deleted) {
+                    unindexed.add(resourceId);
                 }
             }
 
-            // Move up to parent resource
-            current = current.getParent();
-            if (current != null) {
-                System.out.println("DEBUG: Moving up to parent: " + current.getName());
-            } else {
-                System.out.println("DEBUG: No parent (Root reached).");
+            if (!unindexed.isEmpty()) {
+                Map<UUID, long[]> memo = new HashMap<>();
+                for (Resource resource : resourceRepository.findAllById(unindexed)) {
+                    if (!isDeleted(resource)) {
+                        granted.put(resource.getId(), bitsByLineage(bindings, resource, memo));
+                    }
+                }
             }
         }
-        
-        System.out.println("DEBUG: End of hierarchy reached. Access denied.");
-        return false; // No matching permission found in hierarchy
+
+        Map<UUID, Map<String, Boolean>> matrix = new LinkedHashMap<>();
+        for (UUID resourceId : resourceIds) {
+            long[] bits = granted.get(resourceId);
+            Map<String, Boolean> row = new LinkedHashMap<>();
+            for (PermissionHandle handle : handles) {
+                boolean allowed = bits != null && (bindings.isAdmin() || handle.matches(bits));
+                row.put(handle.getName(), allowed);
+            }
+            matrix.put(resourceId, row);
+        }
+        return matrix;
     }
+
     /**
      * Get all effective permissions for a user on a given resource.
-     * Walks up the hierarchy and aggregates permissions.
+     * Aggregates the permissions bound on the resource and its ancestors.
      */
     public Set<String> getEffectivePermissions(UUID userId, UUID resourceId) {
         Set<String> permissions = new HashSet<>();
-        
+
+        UserBindings bindings = bindingCache.get(userId);
+
+        // Located in one of the user's tenant trees: no SQL
+        for (TenantTree tree : bindings.isAdmin() ? List.<TenantTree>of() : trees(bindings)) {
+            int node = tree.indexOf(resourceId);
+            if (node >= 0) {
+                long[] granted = roleCatalog.newBitset();
+                boolean isTenantAdmin = bindings.intervals(tree).collect(node, granted);
+                return decode(granted, isTenantAdmin, permissions);
+            }
+            if (tree.isDeleted(resourceId)) {
+                throw new IllegalStateException("Resource not found");
+            }
+        }
+
         Resource target = resourceRepository.findById(resourceId)
+                .filter(r -> !isDeleted(r))
                 .orElseThrow(() -> new IllegalStateException("Resource not found"));
 
-        List<UserRoleResource> bindings = urrRepository.findAllByUserId(userId);
-        if (bindings == null || bindings.isEmpty()) {
+        if (bindings.isEmpty()) {
             return permissions;
         }
 
-        // Check for ADMIN (Super Admin)
-        boolean isAdmin = bindings.stream().anyMatch(urr -> urr.getRole().getName().equals("ADMIN"));
-        if (isAdmin) {
-            // Return ALL known permissions? Or a special "ALL" flag?
-            // For now, let's return a set of all standard permissions defined in Permissions class
-            // But since Permissions class fields are static final, we can't iterate them easily without reflection.
-            // Let's just return a special permission "ADMIN" which frontend understands as all-access
-            permissions.add("ADMIN"); 
-            // Also add standard ones for UI checks that look for specific strings
-            permissions.add("RESOURCE_CREATE");
-            permissions.add("RESOURCE_READ");
-            permissions.add("RESOURCE_DELETE");
-            permissions.add("RESOURCE_MOVE");
-            permissions.add("USER_CREATE");
-            permissions.add("ASSIGN_ROLE");
-            permissions.add("REMOVE_ROLE");
+        // ADMIN (Super Admin): the frontend understands "ADMIN" as all-access,
+        // standard ones are added for UI checks that look for specific strings
+        if (bindings.isAdmin()) {
+            permissions.add("ADMIN");
+            permissions.addAll(ADMIN_UI_PERMISSIONS);
             return permissions;
         }
 
-        Resource current = target;
-        Set<UUID> visitedResources = new HashSet<>();
+        int n = bindings.size();
+
+        long[] granted = roleCatalog.newBitset();
         boolean isTenantAdmin = false;
 
         // Walk up
-        while (current != null) {
-            if (visitedResources.contains(current.getId())) break;
-            visitedResources.add(current.getId());
-
-            for (UserRoleResource urr : bindings) {
-                if (urr.getResource().getId().equals(current.getId())) {
-                     // Collect all permissions from this role
-                     urr.getRole().getPermissions().forEach(p -> permissions.add(p.getName()));
-                     
-                     // Helper: if role is TENANT_ADMIN, grant all relevant tenant permissions
-                     if (urr.getRole().getName().equals("TENANT_ADMIN")) {
-                         isTenantAdmin = true;
-                     }
+        for (UUID currentId : lineage(target)) {
+            for (int i = 0; i < n; i++) {
+                if (currentId.equals(bindings.resourceId(i))) {
+                    CompiledRole role = bindings.role(i);
+                    // Collect all permissions from this role
+                    role.orInto(granted);
+
+                    // Helper: if role is TENANT_ADMIN, grant all relevant tenant permissions
+                    if (role.isTenantAdmin()) {
+                        isTenantAdmin = true;
+                    }
                 }
             }
-            current = current.getParent();
         }
-        
+
+        return decode(granted, isTenantAdmin, permissions);
+    }
+
+    /**
+     * True if the resource is soft-deleted or under a soft-deleted ancestor.
+     * Answered from the tenant tree index: no query once the tree is loaded.
+     */
+    public boolean isDeleted(Resource resource) {
+        if (resource.getDeletedAt() != null) {
+            return true;
+        }
+        UUID tenantId = resource.getTenant() != null ? resource.getTenant().getId() : null;
+        return tenantId != null && treeIndex.get(tenantId).isDeleted(resource.getId());
+    }
+
+    /**
+     * Starting point for annotating the subtree under {@code root}: what the
+     * root's ancestors grant, read once from the tree index (or the closure
+     * table); {@link PermissionScope#child(UUID)} then pushes it down.
+     */
+    public PermissionScope scopeAbove(UUID userId, Resource root) {
+        UserBindings bindings = bindingCache.get(userId);
+        long[] inherited = roleCatalog.newBitset();
+        boolean isTenantAdmin = false;
+
+        if (!bindings.isEmpty() && !bindings.isAdmin()) {
+            TenantTree tree = treeIndex.get(root.getTenant().getId());
+            int node = tree.indexOf(root.getId());
+            if (node >= 0) {
+                if (tree.parent(node) >= 0) {
+                    isTenantAdmin = bindings.intervals(tree).collect(tree.parent(node), inherited);
+                }
+            } else {
+                List<UUID> ancestors = lineage(root);
+                for (UUID ancestorId : ancestors.subList(1, ancestors.size())) {
+                    for (int i = 0; i < bindings.size(); i++) {
+                        if (ancestorId.equals(bindings.resourceId(i))) {
+                            bindings.role(i).orInto(inherited);
+                            isTenantAdmin |= bindings.role(i).isTenantAdmin();
+                        }
+                    }
+                }
+            }
+        }
+
+        return PermissionScope.above(bindings, inherited, isTenantAdmin, this::names);
+    }
+
+    /**
+     * Same names as {@link #getEffectivePermissions(UUID, UUID)} for a scope.
+     */
+    private Set<String> names(PermissionScope scope) {
+        Set<String> permissions = new HashSet<>();
+        if (scope.isAdmin()) {
+            permissions.add("ADMIN");
+            permissions.addAll(ADMIN_UI_PERMISSIONS);
+            return permissions;
+        }
+        return decode(scope.bits(), scope.isTenantAdmin(), permissions);
+    }
+
+    private Set<String> decode(long[] granted, boolean isTenantAdmin, Set<String> permissions) {
+        permissions.addAll(roleCatalog.names(granted));
+
         if (isTenantAdmin) {
-            permissions.add("RESOURCE_CREATE");
-            permissions.add("RESOURCE_READ");
-            permissions.add("RESOURCE_DELETE");
-            permissions.add("RESOURCE_MOVE");
-            permissions.add("USER_CREATE");
-            permissions.add("ASSIGN_ROLE");
-            permissions.add("REMOVE_ROLE");
+            permissions.addAll(ADMIN_UI_PERMISSIONS);
             permissions.add("TENANT_READ");
         }
 
         return permissions;
     }
-}
\ No newline at end of file
+
+    /**
+     * Permissions applying to the target, built top-down from the nearest
+     * ancestor already in {@code memo} (protected against circular references).
+     */
+    private long[] bitsByLineage(UserBindings bindings, Resource target, Map<UUID, long[]> memo) {
+        Deque<Resource> chain = new ArrayDeque<>();
+        Set<UUID> visitedResources = new HashSet<>();
+        long[] inherited = null;
+        Resource current = target;
+        while (current != null) {
+            inherited = memo.get(current.getId());
+            if (inherited != null) {
+                break;
+            }
+            if (!visitedResources.add(current.getId())) {
+                log.warn("Circular reference detected at resource {}", current.getId());
+                break;
+            }
+            chain.push(current);
+            current = current.getParent();
+        }
+
+        long[] bits = inherited != null ? inherited : roleCatalog.newBitset();
+        while (!chain.isEmpty()) {
+            UUID nodeId = chain.pop().getId();
+            bits = bits.clone();
+            for (int i = 0; i < bindings.size(); i++) {
+                if (nodeId.equals(bindings.resourceId(i))) {
+                    bindings.role(i).orInto(bits);
+                }
+            }
+            memo.put(nodeId, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Trees of the distinct tenants the user holds a binding in.
+     */
+    private List<TenantTree> trees(UserBindings bindings) {
+        List<TenantTree> trees = new ArrayList<>(1);
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < bindings.size(); i++) {
+            if (seen.add(bindings.tenantId(i))) {
+                trees.add(treeIndex.get(bindings.tenantId(i)));
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Ids of the target and all its ancestors, nearest first.
+     * Read from the resource_ancestor closure table in one indexed lookup;
+     * falls back to following parent proxies (protected against circular
+     * references) when the closure has no row for the target.
+     */
+    private List<UUID> lineage(Resource target) {
+        List<UUID> ancestors = resourceRepository.findAncestorIds(target.getId());
+        if (ancestors != null && !ancestors.isEmpty()) {
+            return ancestors;
+        }
+
+        List<UUID> walked = new ArrayList<>();
+        Set<UUID> visitedResources = new HashSet<>(); // Anti-loop protection
+        Resource current = target;
+        while (current != null) {
+            if (!visitedResources.add(current.getId())) {
+                log.warn("Circular reference detected at resource {}", current.getId());
+                break;
+            }
+            walked.add(current.getId());
+            current = current.getParent();
+        }
+        return walked;
+    }
+}
@@ -0,0 +1,131 @@
+package com.yow.access.services;
+
+import com.yow.access.entities.AppUser;
+import com.yow.access.entities.RefreshToken;
+import com.yow.access.exceptions.InvalidRefreshTokenException;
+import com.yow.access.repositories.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens.
+ * <ul>
+ *   <li>Tokens are random (256 bits), handed out once and stored as their
+ *   SHA-256 only.</li>
+ *   <li>Each use revokes the presented token and issues its successor in the
+ *   same family (one family per login).</li>
+ *   <li>Presenting an already used token means it leaked: the whole family
+ *   is revoked. A token issued before a security stamp change (password
+ *   reset, enabling or disabling the account) is refused the same way; role
+ *   changes do not bump the stamp.</li>
+ * </ul>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    public record Rotation(AppUser user, String refreshToken) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh.expiration:P30D}") Duration ttl
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Starts a new family for {@code user}; returns the raw token.
+     */
+    @Transactional
+    public String issue(AppUser user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges {@code rawToken} for its successor. Family revocations are
+     * committed even though the call fails.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        AppUser user = current.getUser();
+
+        if (current.getRevokedAt() != null) {
+            // Jeton déjà utilisé : probablement volé, toute la famille tombe
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Reuse of a revoked refresh token for user {}, family {} revoked", user.getId(), current.getFamilyId());
+            throw new InvalidRefreshTokenException();
+        }
+        if (!current.isActive(now) || !user.isEnabled() || user.getSecurityStamp() != current.getSecurityStamp()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException();
+        }
+
+        current.setRevokedAt(now);
+        return new Rotation(user, issue(user, current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the family of {@code rawToken} (logout); unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    @Scheduled(cron = "${jwt.refresh.purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        log.debug("Removed {} expired refresh tokens", deleted);
+    }
+
+    private String issue(AppUser user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setTokenHash(hash(rawToken));
+        token.setSecurityStamp(user.getSecurityStamp());
+        token.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
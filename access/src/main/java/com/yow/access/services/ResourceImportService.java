@@ -0,0 +1,476 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.ResourceImportResponse;
+import com.yow.access.entities.Resource;
+import com.yow.access.entities.ResourceFactory;
+import com.yow.access.events.ResourceTreeChangedEvent;
+import com.yow.access.exceptions.InvalidImportException;
+import com.yow.access.repositories.ResourceRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk creation of resources, for tenant onboarding.
+ * Both formats are read as they arrive (JSON token by token, CSV line by
+ * line), so memory is bounded by one batch rather than by the upload.
+ * Permission is checked once per existing target parent; new nodes are
+ * inserted with batched JDBC statements, parents before children, and their
+ * closure rows follow in the same order. Each flushed batch leaves one
+ * summarized audit entry instead of one per resource.
+ */
+@Service
+public class ResourceImportService {
+
+    static final int BATCH_SIZE = 1000;
+    static final int MAX_IMPORT_SIZE = 200_000;
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_TYPE_LENGTH = 50;
+    private static final int MAX_PATH_LENGTH = 500;
+
+    private static final String CSV_HEADER = "ref,parentRef,name,type";
+
+    private static final String INSERT_RESOURCE_SQL = """
+        INSERT INTO resource (id, tenant_id, parent_id, type, name, path, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    // Même requête que ResourceRepository.insertChildPaths
+    private static final String INSERT_CHILD_PATHS_SQL = """
+        INSERT INTO resource_ancestor (ancestor_id, descendant_id, depth)
+        SELECT ra.ancestor_id, ?, ra.depth + 1
+        FROM resource_ancestor ra
+        WHERE ra.descendant_id = ?
+        UNION ALL
+        SELECT ?, ?, 0
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceRepository resourceRepository;
+    private final AuthorizationService authorizationService;
+    private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public ResourceImportService(
+            JdbcTemplate jdbcTemplate,
+            ResourceRepository resourceRepository,
+            AuthorizationService authorizationService,
+            AuditLogService auditLogService,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceRepository = resourceRepository;
+        this.authorizationService = authorizationService;
+        this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    /* =========================================================
+       IMPORT - NESTED TREE (JSON, STREAMED)
+       ========================================================= */
+
+    /**
+     * Reads {@code {"parentResourceId": ..., "nodes": [{"name", "type",
+     * "children": [...]}]}} token by token. Each node is added as soon as its
+     * name and type are known, so parentResourceId must come before nodes and
+     * a node's name and type before its children.
+     */
+    @Transactional
+    public ResourceImportResponse importTree(UUID actorUserId, InputStream body) {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidImportException("Expected a JSON object");
+            }
+
+            ImportBatch batch = null;
+            Target root = null;
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "parentResourceId" -> {
+                        if (batch != null) {
+                            throw new InvalidImportException("Duplicate parentResourceId");
+                        }
+                        UUID parentResourceId = uuidValue(parser, field);
+                        batch = new ImportBatch(actorUserId, parentResourceId);
+                        root = batch.existingParent(parentResourceId);
+                    }
+                    case "nodes" -> {
+                        if (batch == null) {
+                            throw new InvalidImportException("parentResourceId must come before nodes");
+                        }
+                        readNodes(parser, batch, root);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (batch == null) {
+                throw new InvalidImportException("parentResourceId is required");
+            }
+            if (batch.isEmpty()) {
+                throw new InvalidImportException("nodes must not be empty");
+            }
+            return batch.finish();
+        } catch (JacksonException e) {
+            throw new InvalidImportException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Parcours en profondeur (pré-ordre) : un parent est toujours inséré avant ses enfants
+    private void readNodes(JsonParser parser, ImportBatch batch, Target parent) {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new InvalidImportException("nodes and children must be arrays");
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new InvalidImportException("Each node must be an object");
+            }
+            readNode(parser, batch, parent);
+        }
+    }
+
+    private void readNode(JsonParser parser, ImportBatch batch, Target parent) {
+        String name = null;
+        String type = null;
+        Target created = null;
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> {
+                    requireNotAdded(created);
+                    name = stringValue(parser, field);
+                }
+                case "type" -> {
+                    requireNotAdded(created);
+                    type = stringValue(parser, field);
+                }
+                case "children" -> {
+                    if (value == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    if (created == null) {
+                        if (name == null || type == null) {
+                            throw new InvalidImportException("name and type must come before children");
+                        }
+                        created = batch.add(parent, name, type, null);
+                    }
+                    readNodes(parser, batch, created);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (created == null) {
+            batch.add(parent, name, type, null);
+        }
+    }
+
+    // Le nœud est déjà inséré dès que ses enfants commencent
+    private static void requireNotAdded(Target created) {
+        if (created != null) {
+            throw new InvalidImportException("name and type must come before children");
+        }
+    }
+
+    private static String stringValue(JsonParser parser, String field) {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getString();
+            case VALUE_NULL -> null;
+            default -> throw new InvalidImportException(field + " must be a string");
+        };
+    }
+
+    private static UUID uuidValue(JsonParser parser, String field) {
+        String value = stringValue(parser, field);
+        if (value == null) {
+            throw new InvalidImportException(field + " is required");
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException(field + " must be a UUID");
+        }
+    }
+
+    /* =========================================================
+       IMPORT - FLAT LIST (CSV, STREAMED)
+       ========================================================= */
+
+    /**
+     * Reads {@code ref,parentRef,name,type} rows one at a time.
+     * An empty parentRef means the default parent; otherwise it names the ref
+     * of an earlier row or the id of an existing resource of the same tenant.
+     */
+    @Transactional
+    public ResourceImportResponse importCsv(
+            UUID actorUserId,
+            UUID parentResourceId,
+            Reader reader
+    ) {
+        ImportBatch batch = new ImportBatch(actorUserId, parentResourceId);
+        Target defaultParent = batch.existingParent(parentResourceId);
+        Map<String, Target> refs = new HashMap<>();
+
+        try (BufferedReader in = new BufferedReader(reader)) {
+            String header = in.readLine();
+            if (header == null || !CSV_HEADER.equalsIgnoreCase(header.strip())) {
+                throw new InvalidImportException("Expected CSV header: " + CSV_HEADER);
+            }
+
+            String line;
+            int lineNumber = 1;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                List<String> fields = parseCsvLine(line, lineNumber);
+                if (fields.size() != 4) {
+                    throw new InvalidImportException("Line " + lineNumber + ": expected 4 fields, got " + fields.size());
+                }
+
+                String ref = fields.get(0);
+                String parentRef = fields.get(1);
+                Target parent = parentRef.isEmpty()
+                        ? defaultParent
+                        : resolve(batch, refs, parentRef, lineNumber);
+
+                Target created = batch.add(parent, fields.get(2), fields.get(3), lineNumber);
+                if (!ref.isEmpty() && refs.putIfAbsent(ref, created) != null) {
+                    throw new InvalidImportException("Line " + lineNumber + ": duplicate ref " + ref);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return batch.finish();
+    }
+
+    private Target resolve(ImportBatch batch, Map<String, Target> refs, String parentRef, int lineNumber) {
+        Target target = refs.get(parentRef);
+        if (target != null) {
+            return target;
+        }
+
+        UUID existingId;
+        try {
+            existingId = UUID.fromString(parentRef);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException("Line " + lineNumber + ": unknown parentRef " + parentRef);
+        }
+        return batch.existingParent(existingId);
+    }
+
+    /**
+     * Splits one CSV line; fields may be double-quoted, with "" for a quote.
+     */
+    static List<String> parseCsvLine(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().strip());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new InvalidImportException("Line " + lineNumber + ": unterminated quoted field");
+        }
+        fields.add(field.toString().strip());
+        return fields;
+    }
+
+    /* =========================================================
+       BATCH STATE
+       ========================================================= */
+
+    private record Target(UUID id, String path) {
+    }
+
+    private record Row(UUID id, UUID parentId, String type, String name, String path) {
+    }
+
+    /**
+     * One import: the tenant, the parents already authorized and the rows
+     * waiting for the next JDBC batch.
+     */
+    private final class ImportBatch {
+
+        private final UUID actorUserId;
+        private final Resource anchor;
+        private final Map<UUID, Target> authorizedParents = new HashMap<>();
+        private List<Row> rows = new ArrayList<>(BATCH_SIZE);
+        private final Instant createdAt = Instant.now();
+
+        private int imported;
+        private int batches;
+
+        private ImportBatch(UUID actorUserId, UUID parentResourceId) {
+            this.actorUserId = actorUserId;
+            this.anchor = resourceRepository.findById(parentResourceId)
+                    .filter(resource -> !authorizationService.isDeleted(resource))
+                    .orElseThrow(() ->
+                            new IllegalStateException("Resource not found: " + parentResourceId)
+                    );
+        }
+
+        // Vérifie RESOURCE_CREATE une seule fois par parent existant
+        private Target existingParent(UUID parentId) {
+            Target target = authorizedParents.get(parentId);
+            if (target != null) {
+                return target;
+            }
+
+            Resource parent = parentId.equals(anchor.getId())
+                    ? anchor
+                    : resourceRepository.findById(parentId)
+                            .filter(resource -> !authorizationService.isDeleted(resource))
+                            .orElseThrow(() ->
+                                    new IllegalStateException("Resource not found: " + parentId)
+                            );
+
+            if (!parent.getTenant().getId().equals(anchor.getTenant().getId())) {
+                throw new InvalidImportException("Parent " + parentId + " belongs to another tenant");
+            }
+
+            authorizationService.checkPermission(actorUserId, parentId, "RESOURCE_CREATE");
+
+            target = new Target(parent.getId(), parent.getPath());
+            authorizedParents.put(parentId, target);
+            return target;
+        }
+
+        private Target add(Target parent, String name, String type, Integer lineNumber) {
+            String at = lineNumber != null ? "Line " + lineNumber + ": " : "";
+
+            if (name == null || name.isBlank() || name.length() > MAX_NAME_LENGTH) {
+                throw new InvalidImportException(at + "name must be 1 to " + MAX_NAME_LENGTH + " characters");
+            }
+            // Même règle qu'au renommage : le nom est un segment de chemin
+            if (name.indexOf('/') >= 0) {
+                throw new InvalidImportException(at + "name must not contain '/'");
+            }
+            if (type == null || type.isBlank() || type.length() > MAX_TYPE_LENGTH) {
+                throw new InvalidImportException(at + "type must be 1 to " + MAX_TYPE_LENGTH + " characters");
+            }
+
+            String path = ResourceFactory.childPath(parent.path(), name);
+            if (path.length() > MAX_PATH_LENGTH) {
+                throw new InvalidImportException(at + "path longer than " + MAX_PATH_LENGTH + " characters");
+            }
+            int count = imported + rows.size() + 1; // Cette ligne comprise
+            if (count > MAX_IMPORT_SIZE) {
+                throw new InvalidImportException("Import limited to " + MAX_IMPORT_SIZE + " resources");
+            }
+
+            Row row = new Row(UUID.randomUUID(), parent.id(), type, name, path);
+            rows.add(row);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+            return new Target(row.id(), row.path());
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            UUID tenantId = anchor.getTenant().getId();
+            Timestamp timestamp = Timestamp.from(createdAt);
+
+            jdbcTemplate.batchUpdate(INSERT_RESOURCE_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setObject(1, row.id());
+                ps.setObject(2, tenantId);
+                ps.setObject(3, row.parentId());
+                ps.setString(4, row.type());
+                ps.setString(5, row.name());
+                ps.setString(6, row.path());
+                ps.setTimestamp(7, timestamp);
+            });
+
+            // Ordre conservé : les chemins du parent existent avant ceux de l'enfant
+            jdbcTemplate.batchUpdate(INSERT_CHILD_PATHS_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setObject(1, row.id());
+                ps.setObject(2, row.parentId());
+                ps.setObject(3, row.id());
+                ps.setObject(4, row.id());
+            });
+
+            imported += rows.size();
+            batches++;
+
+            auditLogService.log(
+                    anchor.getTenant(),
+                    null,
+                    anchor,
+                    "BULK_IMPORT_RESOURCES",
+                    "RESOURCE",
+                    anchor.getId(),
+                    "SUCCESS",
+                    "Imported " + rows.size() + " resources (batch " + batches + ")",
+                    null,
+                    null
+            );
+
+            rows = new ArrayList<>(BATCH_SIZE);
+        }
+
+        private boolean isEmpty() {
+            return imported == 0 && rows.isEmpty();
+        }
+
+        private ResourceImportResponse finish() {
+            flush();
+            if (imported > 0) {
+                eventPublisher.publishEvent(new ResourceTreeChangedEvent(anchor.getTenant().getId()));
+            }
+            return new ResourceImportResponse(imported, batches);
+        }
+    }
+}
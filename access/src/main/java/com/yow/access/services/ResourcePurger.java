@@ -0,0 +1,118 @@
+package com.yow.access.services;
+
+import com.yow.access.events.ResourceTreeChangedEvent;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.AuditLogRepository;
+import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.repositories.UserRoleResourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Background removal of soft-deleted subtrees.
+ * Each chunk (deepest nodes first, so a child always goes before its parent)
+ * runs in its own short transaction: bindings are deleted, audit entries are
+ * detached and the resources removed, without ever locking a whole subtree.
+ * Until then the subtree is already invisible to reads and authorization.
+ */
+@Component
+public class ResourcePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourcePurger.class);
+    private static final Duration AUDIT_CLOCK_MARGIN = Duration.ofDays(1);
+
+    private final ResourceRepository resourceRepository;
+    private final UserRoleResourceRepository urrRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int rootsPerRun;
+
+    public ResourcePurger(
+            ResourceRepository resourceRepository,
+            UserRoleResourceRepository urrRepository,
+            AuditLogRepository auditLogRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${resources.purge.chunk-size:500}") int chunkSize,
+            @Value("${resources.purge.roots-per-run:10}") int rootsPerRun
+    ) {
+        this.resourceRepository = resourceRepository;
+        this.urrRepository = urrRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.rootsPerRun = rootsPerRun;
+    }
+
+    @Scheduled(
+            initialDelayString = "${resources.purge.interval:PT30S}",
+            fixedDelayString = "${resources.purge.interval:PT30S}"
+    )
+    public void purgeDeleted() {
+        for (UUID rootId : resourceRepository.findSoftDeletedIds(rootsPerRun)) {
+            try {
+                purgeSubtree(rootId);
+            } catch (RuntimeException e) {
+                // Nouvelle tentative au prochain passage
+                log.warn("Purge of deleted subtree {} interrupted: {}", rootId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the subtree under {@code rootId} chunk by chunk.
+     * @return number of resources removed
+     */
+    public int purgeSubtree(UUID rootId) {
+        UUID tenantId = resourceRepository.findTenantIdById(rootId);
+        if (tenantId == null) {
+            return 0; // Déjà purgé (sous-arbre d'une autre racine supprimée)
+        }
+
+        int removed = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> purgeChunk(rootId));
+            removed += chunk;
+        } while (chunk > 0);
+
+        // Le nouvel arbre du tenant oublie les identifiants purgés
+        eventPublisher.publishEvent(new ResourceTreeChangedEvent(tenantId));
+        log.info("Purged {} resources under deleted resource {}", removed, rootId);
+        return removed;
+    }
+
+    private int purgeChunk(UUID rootId) {
+        List<UUID> ids = resourceRepository.findPurgeChunk(rootId, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> affectedUsers = urrRepository.findUserIdsByResourceIds(ids);
+        urrRepository.deleteAllByResourceIds(ids);
+        // Marge d'un jour : horloges applicatives et base ne sont pas forcément alignées
+        Instant since = resourceRepository.findOldestCreatedAt(ids).minus(AUDIT_CLOCK_MARGIN);
+        auditLogRepository.detachResources(ids, since);
+        resourceRepository.deleteAllByIdIn(ids);
+
+        // Caches de bindings invalidés après commit du lot
+        for (UUID userId : affectedUsers) {
+            eventPublisher.publishEvent(new UserAccessChangedEvent(userId));
+        }
+        return ids.size();
+    }
+}
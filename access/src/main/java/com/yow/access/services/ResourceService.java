@@ -3,29 +3,54 @@ package com.yow.access.services;
 import com.yow.access.dto.ResourceTreeResponse;
 import com.yow.access.entities.Resource;
 import com.yow.access.entities.ResourceFactory;
+import com.yow.access.events.ResourceTreeChangedEvent;
 import com.yow.access.exceptions.AccessDeniedException;
+import com.yow.access.exceptions.InvalidCursorException;
+import com.yow.access.exceptions.InvalidHierarchyException;
+import com.yow.access.exceptions.InvalidResourceNameException;
+import com.yow.access.repositories.ResourceChildView;
+import com.yow.access.repositories.ResourceNodeView;
 import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.services.rbac.PermissionHandle;
+import com.yow.access.services.rbac.PermissionScope;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class ResourceService {
 
+    private static final int MAX_EXPAND_DEPTH = 10;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ResourceRepository resourceRepository;
     private final AuthorizationService authorizationService;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ResourceService(
             ResourceRepository resourceRepository,
             AuthorizationService authorizationService,
-            AuditLogService auditLogService
+            AuditLogService auditLogService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.resourceRepository = resourceRepository;
         this.authorizationService = authorizationService;
         this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
     }
 
     /* =========================================================
@@ -49,7 +74,8 @@ public class ResourceService {
         Resource child =
                 ResourceFactory.createChildResource(parent, name, type);
 
-        resourceRepository.save(child);
+        resourceRepository.saveAndFlush(child);
+        resourceRepository.insertChildPaths(child.getId(), parent.getId());
 
         auditLogService.log(
                 parent.getTenant(),
@@ -63,6 +89,8 @@ public class ResourceService {
                 null,
                 null
         );
+
+        eventPublisher.publishEvent(new ResourceTreeChangedEvent(parent.getTenant().getId()));
     }
 
     /* =========================================================
@@ -80,21 +108,215 @@ public class ResourceService {
         );
 
         Resource root = loadResource(rootResourceId);
-        return buildTree(root);
+        return loadSubtree(root);
+    }
+
+    /**
+     * Same tree, each node annotated with the caller's effective permissions.
+     * Permissions are pushed down from parent to child in one top-down pass
+     * over the loaded tree; subtrees the caller cannot RESOURCE_READ are pruned.
+     */
+    @Transactional(readOnly = true)
+    public ResourceTreeResponse getResourceTree(
+            UUID userId,
+            UUID rootResourceId,
+            boolean withPermissions
+    ) {
+        if (!withPermissions) {
+            return getResourceTree(userId, rootResourceId);
+        }
+
+        Resource root = loadResource(rootResourceId);
+        PermissionHandle read = authorizationService.permission("RESOURCE_READ");
+        PermissionScope scope = authorizationService.scopeAbove(userId, root).child(root.getId());
+
+        if (!scope.has(read)) {
+            throw new AccessDeniedException("Permission denied: RESOURCE_READ");
+        }
+
+        ResourceTreeResponse tree = loadSubtree(root);
+        annotate(tree, scope, read);
+        return tree;
     }
 
-    private ResourceTreeResponse buildTree(Resource resource) {
-        ResourceTreeResponse node =
-                ResourceTreeResponse.fromEntity(resource);
+    /**
+     * Lazy expansion for large trees: {@code depth} levels under the root, at
+     * most {@code limit} children per parent, ordered by (name, id).
+     * Every node carries its childCount, and a parent with more children than
+     * returned carries the keyset cursor of its next page. With a cursor, the
+     * first level is the page of the root's children that follows it.
+     * One query per level, whatever the number of parents on it.
+     */
+    @Transactional(readOnly = true)
+    public ResourceTreeResponse expandResourceTree(
+            UUID userId,
+            UUID rootResourceId,
+            int depth,
+            int limit,
+            String after,
+            boolean withPermissions
+    ) {
+        int levels = Math.clamp(depth, 1, MAX_EXPAND_DEPTH);
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        Resource root = loadResource(rootResourceId);
+        PermissionHandle read = null;
+        PermissionScope scope = null;
+        if (withPermissions) {
+            read = authorizationService.permission("RESOURCE_READ");
+            scope = authorizationService.scopeAbove(userId, root).child(root.getId());
+            if (!scope.has(read)) {
+                throw new AccessDeniedException("Permission denied: RESOURCE_READ");
+            }
+        } else {
+            authorizationService.checkPermission(userId, rootResourceId, "RESOURCE_READ");
+        }
+
+        ResourceTreeResponse top = ResourceTreeResponse.fromEntity(root);
+        top.setChildCount(resourceRepository.countByParentIdAndDeletedAtIsNull(root.getId()));
 
-        List<Resource> children =
-                resourceRepository.findByParentId(resource.getId());
+        // Niveau 1 : une page keyset sous la racine
+        List<ResourceChildView> rows;
+        if (after == null || after.isBlank()) {
+            rows = resourceRepository.findChildPage(root.getId(), pageSize + 1);
+        } else {
+            String[] cursor = decodeCursor(after);
+            rows = resourceRepository.findChildPageAfter(
+                    root.getId(), cursor[1], UUID.fromString(cursor[0]), pageSize + 1);
+        }
+        List<ResourceTreeResponse> frontier = new ArrayList<>();
+        attachPage(top, rows, pageSize, frontier);
+
+        // Niveaux suivants : première page de chaque parent, une requête par niveau
+        for (int level = 2; level <= levels && !frontier.isEmpty(); level++) {
+            Map<UUID, ResourceTreeResponse> parents = new LinkedHashMap<>();
+            for (ResourceTreeResponse node : frontier) {
+                if (node.getChildCount() != null && node.getChildCount() > 0) {
+                    parents.put(node.getId(), node);
+                }
+            }
+            frontier = new ArrayList<>();
+            if (parents.isEmpty()) {
+                break;
+            }
 
-        for (Resource child : children) {
-            node.addChild(buildTree(child));
+            Map<UUID, List<ResourceChildView>> byParent = new HashMap<>();
+            for (ResourceChildView row : resourceRepository.findChildPages(parents.keySet(), pageSize + 1)) {
+                byParent.computeIfAbsent(row.getParentId(), id -> new ArrayList<>()).add(row);
+            }
+            for (ResourceTreeResponse parent : parents.values()) {
+                attachPage(parent, byParent.getOrDefault(parent.getId(), List.of()), pageSize, frontier);
+            }
         }
 
-        return node;
+        if (withPermissions) {
+            annotate(top, scope, read);
+        }
+        return top;
+    }
+
+    /**
+     * Attaches up to {@code pageSize} rows (fetched with one extra row to detect
+     * a next page) and sets the parent's next cursor.
+     */
+    private static void attachPage(
+            ResourceTreeResponse parent,
+            List<ResourceChildView> rows,
+            int pageSize,
+            List<ResourceTreeResponse> frontier
+    ) {
+        int n = Math.min(rows.size(), pageSize);
+        for (int i = 0; i < n; i++) {
+            ResourceTreeResponse child = ResourceTreeResponse.fromView(rows.get(i));
+            parent.addChild(child);
+            frontier.add(child);
+        }
+        if (rows.size() > pageSize) {
+            ResourceChildView last = rows.get(pageSize - 1);
+            parent.setNextCursor(encodeCursor(last.getId(), last.getName()));
+        }
+    }
+
+    // Curseur opaque : base64url("<id>:<name>")
+    private static String encodeCursor(UUID id, String name) {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            UUID id = UUID.fromString(raw.substring(0, 36));
+            if (raw.charAt(36) != ':') {
+                throw new InvalidCursorException(cursor);
+            }
+            return new String[]{id.toString(), raw.substring(37)};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private void annotate(
+            ResourceTreeResponse top,
+            PermissionScope topScope,
+            PermissionHandle read
+    ) {
+        Deque<ResourceTreeResponse> nodes = new ArrayDeque<>();
+        Deque<PermissionScope> scopes = new ArrayDeque<>();
+        nodes.push(top);
+        scopes.push(topScope);
+
+        while (!nodes.isEmpty()) {
+            ResourceTreeResponse node = nodes.pop();
+            PermissionScope scope = scopes.pop();
+            node.setPermissions(scope.names());
+
+            Iterator<ResourceTreeResponse> children = node.getChildren().iterator();
+            while (children.hasNext()) {
+                ResourceTreeResponse child = children.next();
+                PermissionScope childScope = scope.child(child.getId());
+                if (!childScope.has(read)) {
+                    children.remove(); // Sous-arbre non lisible : élagué
+                    continue;
+                }
+                nodes.push(child);
+                scopes.push(childScope);
+            }
+        }
+    }
+
+    /**
+     * Whole subtree under {@code root} in one query (closure table), linked in memory.
+     * Falls back to a single scan of the tenant if the closure has no row for the root.
+     */
+    private ResourceTreeResponse loadSubtree(Resource root) {
+        List<ResourceNodeView> rows = resourceRepository.findSubtreeNodes(root.getId());
+        if (rows.isEmpty()) {
+            rows = resourceRepository.findTreeNodesByTenantId(root.getTenant().getId());
+        }
+
+        ResourceTreeResponse node = link(rows).get(root.getId());
+        return node != null ? node : ResourceTreeResponse.fromEntity(root);
+    }
+
+    /**
+     * Links flat rows into ResourceTreeResponse nodes in linear time, in any
+     * row order. Returns every node by id; rows whose parent is missing (under
+     * a soft-deleted resource) stay detached.
+     */
+    private static Map<UUID, ResourceTreeResponse> link(List<ResourceNodeView> rows) {
+        Map<UUID, ResourceTreeResponse> nodes = new LinkedHashMap<>(rows.size() * 2);
+        for (ResourceNodeView row : rows) {
+            nodes.put(row.getId(), ResourceTreeResponse.fromView(row));
+        }
+        for (ResourceNodeView row : rows) {
+            ResourceTreeResponse parent = row.getParentId() != null ? nodes.get(row.getParentId()) : null;
+            if (parent != null) {
+                parent.addChild(nodes.get(row.getId()));
+            }
+        }
+        return nodes;
     }
 
     /* =========================================================
@@ -102,10 +324,16 @@ public class ResourceService {
        ========================================================= */
     @Transactional(readOnly = true)
     public List<ResourceTreeResponse> getRootResourcesByTenant(UUID tenantId) {
-        List<Resource> roots = resourceRepository.findByTenantIdAndParentIsNull(tenantId);
-        return roots.stream()
-                .map(this::buildTree)
-                .toList();
+        List<ResourceNodeView> rows = resourceRepository.findTreeNodesByTenantId(tenantId);
+        Map<UUID, ResourceTreeResponse> nodes = link(rows);
+
+        List<ResourceTreeResponse> roots = new ArrayList<>();
+        for (ResourceNodeView row : rows) {
+            if (row.getParentId() == null) {
+                roots.add(nodes.get(row.getId()));
+            }
+        }
+        return roots;
     }
 
     /* =========================================================
@@ -132,7 +360,11 @@ public class ResourceService {
                 "RESOURCE_DELETE"
         );
 
-        resourceRepository.delete(resource);
+        // Seule la racine est marquée : le sous-arbre disparaît des lectures dès le commit,
+        // ResourcePurger supprime ensuite descendants et bindings par lots
+        resource.setDeletedAt(Instant.now());
+        resourceRepository.save(resource);
+        eventPublisher.publishEvent(new ResourceTreeChangedEvent(resource.getTenant().getId()));
 
         auditLogService.log(
                 resource.getTenant(),
@@ -166,12 +398,25 @@ public class ResourceService {
                 "RESOURCE_MOVE"
         );
 
+        if (!newParent.getTenant().getId().equals(resource.getTenant().getId())) {
+            throw new InvalidHierarchyException("Cannot move a resource to another tenant");
+        }
+        // Cycle : le nouveau parent ne peut pas être la ressource ni l'un de ses descendants
+        if (resourceId.equals(newParentId) || resourceRepository.countPath(resourceId, newParentId) > 0) {
+            throw new InvalidHierarchyException("Cannot move a resource under itself or one of its descendants");
+        }
+
+        String oldPath = resource.getPath();
+        String newPath = ResourceFactory.childPath(newParent, resource.getName());
+
         resource.setParent(newParent);
-        resource.setPath(
-                newParent.getPath() + "/" + resource.getName()
-        );
+        resource.setPath(newPath);
 
         resourceRepository.save(resource);
+        rewriteDescendantPaths(resourceId, oldPath, newPath);
+        resourceRepository.detachSubtreePaths(resourceId);
+        resourceRepository.attachSubtreePaths(resourceId, newParentId);
+        eventPublisher.publishEvent(new ResourceTreeChangedEvent(resource.getTenant().getId()));
 
         auditLogService.log(
                 resource.getTenant(),
@@ -187,11 +432,84 @@ public class ResourceService {
         );
     }
 
+    /* =========================================================
+       RENAME RESOURCE
+       ========================================================= */
+    @Transactional
+    public void renameResource(
+            UUID userId,
+            UUID resourceId,
+            String newName
+    ) {
+        Resource resource = loadResource(resourceId);
+
+        authorizationService.checkPermission(
+                userId,
+                resourceId,
+                "RESOURCE_UPDATE"
+        );
+
+        // Le nom est un segment de chemin : non vide, sans '/', unique parmi les frères
+        String name = newName != null ? newName.strip() : "";
+        if (name.isEmpty() || name.indexOf('/') >= 0) {
+            throw new InvalidResourceNameException("Resource name must be non-blank and must not contain '/'");
+        }
+        if (!name.equals(resource.getName()) && siblingExists(resource, name)) {
+            throw new InvalidHierarchyException("A sibling resource is already named " + name);
+        }
+
+        String oldPath = resource.getPath();
+        String newPath = resource.getParent() != null
+                ? ResourceFactory.childPath(resource.getParent(), name)
+                : oldPath; // La racine garde son chemin "/"
+
+        resource.setName(name);
+        resource.setPath(newPath);
+
+        resourceRepository.save(resource);
+        rewriteDescendantPaths(resourceId, oldPath, newPath);
+
+        auditLogService.log(
+                resource.getTenant(),
+                null,
+                resource,
+                "RENAME_RESOURCE",
+                "RESOURCE",
+                resourceId,
+                "SUCCESS",
+                "Resource renamed",
+                null,
+                null
+        );
+    }
+
+    private boolean siblingExists(Resource resource, String name) {
+        return resource.getParent() != null
+                ? resourceRepository.existsByParentIdAndNameAndDeletedAtIsNull(resource.getParent().getId(), name)
+                : resourceRepository.existsByTenantIdAndParentIsNullAndNameAndDeletedAtIsNull(
+                        resource.getTenant().getId(), name);
+    }
+
+    /**
+     * One set-based UPDATE over the whole subtree (closure table): every
+     * descendant path has its old prefix replaced by the new one.
+     */
+    private void rewriteDescendantPaths(UUID resourceId, String oldPath, String newPath) {
+        if (oldPath.equals(newPath)) {
+            return;
+        }
+        String oldPrefix = oldPath.endsWith("/") ? oldPath : oldPath + "/";
+        String newPrefix = newPath.endsWith("/") ? newPath : newPath + "/";
+        resourceRepository.rewriteDescendantPaths(resourceId, oldPrefix.length(), newPrefix);
+    }
+
     /* =========================================================
        UTIL
        ========================================================= */
+    // Une ressource supprimée logiquement (ou sous un ancêtre supprimé) est introuvable
     private Resource loadResource(UUID resourceId) {
         return resourceRepository.findById(resourceId)
+                .filter(resource -> !authorizationService.isDeleted(resource))
                 .orElseThrow(() ->
                         new IllegalStateException("Resource not found: " + resourceId)
                 );
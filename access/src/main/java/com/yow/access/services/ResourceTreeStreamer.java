@@ -0,0 +1,92 @@
+package com.yow.access.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Writes a tenant's whole resource forest as JSON while reading it, without
+ * ever holding the tree in memory.
+ * Rows come from a forward-only JDBC cursor in depth-first order (sort key =
+ * the chain of ids from the root, all of equal width) with their depth, so
+ * each row either opens a child of the previous node or closes back up to
+ * its own level. Soft-deleted subtrees are cut off by the recursion itself.
+ * Output has the same shape as
+ * {@link ResourceService#getRootResourcesByTenant(UUID)}.
+ */
+@Service
+public class ResourceTreeStreamer {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String TENANT_TREE_SQL = """
+        WITH RECURSIVE tree (id, name, type, depth, sort_key) AS (
+            SELECT r.id, r.name, r.type, 0, CAST(r.id AS VARCHAR)
+            FROM resource r
+            WHERE r.tenant_id = ? AND r.parent_id IS NULL AND r.deleted_at IS NULL
+            UNION ALL
+            SELECT c.id, c.name, c.type, t.depth + 1,
+                   CAST(t.sort_key || '/' || CAST(c.id AS VARCHAR) AS VARCHAR)
+            FROM resource c
+            JOIN tree t ON c.parent_id = t.id
+            WHERE t.depth < 1000 AND c.deleted_at IS NULL
+        )
+        SELECT id, name, type, depth FROM tree ORDER BY sort_key
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ResourceTreeStreamer(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read-only transaction so the PostgreSQL driver honours the fetch size
+     * (a cursor instead of the whole result set).
+     */
+    @Transactional(readOnly = true)
+    public void writeTenantTree(UUID tenantId, OutputStream out) {
+        try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+            gen.writeStartArray();
+            int[] open = {0}; // Noeuds ouverts (objet + tableau children)
+
+            jdbcTemplate.query(
+                    connection -> {
+                        var statement = connection.prepareStatement(TENANT_TREE_SQL);
+                        statement.setFetchSize(FETCH_SIZE);
+                        statement.setObject(1, tenantId);
+                        return statement;
+                    },
+                    rs -> {
+                        int depth = rs.getInt("depth");
+                        // Remonter jusqu'au parent de cette ligne
+                        while (open[0] > depth) {
+                            gen.writeEndArray();
+                            gen.writeEndObject();
+                            open[0]--;
+                        }
+                        gen.writeStartObject();
+                        gen.writeStringProperty("id", rs.getObject("id", UUID.class).toString());
+                        gen.writeStringProperty("name", rs.getString("name"));
+                        gen.writeStringProperty("type", rs.getString("type"));
+                        gen.writeArrayPropertyStart("children");
+                        open[0]++;
+                    }
+            );
+
+            while (open[0] > 0) {
+                gen.writeEndArray();
+                gen.writeEndObject();
+                open[0]--;
+            }
+            gen.writeEndArray();
+        }
+    }
+}
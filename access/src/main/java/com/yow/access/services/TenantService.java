@@ -2,8 +2,10 @@ package com.yow.access.services;
 
 import com.yow.access.entities.*;
 import com.yow.access.entities.Resource;
+import com.yow.access.events.UserAccessChangedEvent;
 import com.yow.access.exceptions.TenantAlreadyExistsException;
 import com.yow.access.repositories.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ public class TenantService {
     private final RoleRepository roleRepository;
     private final UserRoleResourceRepository urrRepository;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TenantService(
             TenantRepository tenantRepository,
@@ -26,7 +29,8 @@ public class TenantService {
             UserRepository userRepository,
             RoleRepository roleRepository,
             UserRoleResourceRepository urrRepository,
-            AuditLogService auditLogService
+            AuditLogService auditLogService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.tenantRepository = tenantRepository;
         this.resourceRepository = resourceRepository;
@@ -34,6 +38,7 @@ public class TenantService {
         this.roleRepository = roleRepository;
         this.urrRepository = urrRepository;
         this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
     }
 
     /* ============================
@@ -74,7 +79,8 @@ public class TenantService {
 
         Resource root =
                 ResourceFactory.createRootResource(tenant, name);
-        resourceRepository.save(root);
+        resourceRepository.saveAndFlush(root);
+        resourceRepository.insertRootPath(root.getId());
 
         Role adminRole =
                 roleRepository.findByName("TENANT_ADMIN")
@@ -83,6 +89,8 @@ public class TenantService {
         UserRoleResource urr =
                 UserRoleResourceFactory.create(creator, adminRole, root);
         urrRepository.save(urr);
+        // Bindings du créateur en cache : sans cela, refusé sur son propre tenant jusqu'au TTL
+        eventPublisher.publishEvent(new UserAccessChangedEvent(creator.getId()));
 
         auditLogService.log(
                 tenant,
@@ -1,8 +1,11 @@
 package com.yow.access.services;
 
 import com.yow.access.entities.*;
+import com.yow.access.events.UserAccessChangedEvent;
 import com.yow.access.exceptions.AccessDeniedException;
 import com.yow.access.repositories.*;
+import com.yow.access.config.security.PasswordHasher;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,7 +20,8 @@ public class UserService {
     private final UserRoleResourceRepository urrRepository;
     private final AuthorizationService authorizationService;
     private final AuditLogService auditLogService;
-    private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserService(
             UserRepository userRepository,
@@ -26,7 +30,8 @@ public class UserService {
             UserRoleResourceRepository urrRepository,
             AuthorizationService authorizationService,
             AuditLogService auditLogService,
-            org.springframework.security.crypto.password.PasswordEncoder passwordEncoder
+            PasswordHasher passwordHasher,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
@@ -34,7 +39,8 @@ public class UserService {
         this.urrRepository = urrRepository;
         this.authorizationService = authorizationService;
         this.auditLogService = auditLogService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.eventPublisher = eventPublisher;
     }
 
     /* ============================
@@ -43,7 +49,7 @@ public class UserService {
     /* ============================
        CREATE USER (DIRECT ACTIVE)
        ============================ */
-    @Transactional
+    // Pas de transaction autour du hachage : un seul save, transactionnel en lui-même
     public AppUser createUser(
             String username,
             String email,
@@ -52,7 +58,7 @@ public class UserService {
         AppUser user = new AppUser();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        user.setPasswordHash(passwordHasher.encode(rawPassword));
         user.setEnabled(true);
         user.setAccountActivated(true); // Direct activation
 
@@ -68,6 +74,8 @@ public class UserService {
                 .orElseThrow(() -> new IllegalStateException("User not found"));
 
         user.setEnabled(enabled);
+        user.bumpSecurityStamp();
+        eventPublisher.publishEvent(new UserAccessChangedEvent(userId));
     }
 
     /* ============================
@@ -80,7 +88,9 @@ public class UserService {
             Short roleId,
             UUID resourceId
     ) {
+        // Pas de nouveau binding dans un sous-arbre en attente de purge
         Resource resource = resourceRepository.findById(resourceId)
+                .filter(r -> !authorizationService.isDeleted(r))
                 .orElseThrow(() -> new IllegalStateException("Resource not found"));
 
         AppUser actor = userRepository.findById(actorUserId)
@@ -107,6 +117,7 @@ public class UserService {
                     );
 
             urrRepository.save(urr);
+            eventPublisher.publishEvent(new UserAccessChangedEvent(targetUserId));
 
             auditLogService.log(
                     resource.getTenant(),
@@ -174,6 +185,7 @@ public class UserService {
                             );
 
             urrRepository.delete(urr);
+            eventPublisher.publishEvent(new UserAccessChangedEvent(targetUserId));
 
             auditLogService.log(
                     resource.getTenant(),
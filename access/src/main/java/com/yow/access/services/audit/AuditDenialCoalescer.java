@@ -0,0 +1,143 @@
+package com.yow.access.services.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces repeated failures so a client hammering a forbidden operation
+ * cannot turn each attempt into a database write.
+ * The first occurrence of a (tenant, user, action, resource, target, outcome)
+ * is written immediately, as before. Identical ones during the next
+ * {@code window} are only counted; when the window closes they become one
+ * row with {@code occurrences} and their first/last timestamps.
+ * At most {@code max-keys} windows are open at once; beyond that failures
+ * are written one by one again, memory never grows with the attack.
+ */
+@Component
+public class AuditDenialCoalescer {
+
+    record Key(UUID tenantId, UUID userId, String action, UUID resourceId, UUID targetId, String outcome) {
+        static Key of(AuditRecord r) {
+            return new Key(r.tenantId(), r.userId(), r.action(), r.resourceId(), r.targetId(), r.outcome());
+        }
+    }
+
+    private static final class Window {
+        final AuditRecord first;
+        final long closesAt;
+        int repeats;
+        Instant firstRepeat;
+        Instant lastRepeat;
+
+        Window(AuditRecord first, long closesAt) {
+            this.first = first;
+            this.closesAt = closesAt;
+        }
+
+        void repeat(Instant at) {
+            if (repeats++ == 0) {
+                firstRepeat = at;
+            }
+            lastRepeat = at;
+        }
+    }
+
+    private final AuditLogWriter writer;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public AuditDenialCoalescer(
+            AuditLogWriter writer,
+            MeterRegistry meterRegistry,
+            @Value("${audit.coalescing.window:PT60S}") Duration window,
+            @Value("${audit.coalescing.max-keys:10000}") int maxKeys
+    ) {
+        this.writer = writer;
+        this.windowNanos = window.toNanos();
+        this.maxKeys = maxKeys;
+        this.coalesced = meterRegistry.counter("audit.coalescer.coalesced");
+        Gauge.builder("audit.coalescer.windows", windows, Map::size).register(meterRegistry);
+    }
+
+    public void submit(AuditRecord record) {
+        long now = System.nanoTime();
+        boolean[] writeNow = {false};
+        windows.compute(Key.of(record), (key, window) -> {
+            if (window == null || now - window.closesAt >= 0) {
+                // Première occurrence (ou fenêtre échue pas encore balayée) : écrite tout de suite
+                writeNow[0] = true;
+                if (window != null && window.repeats > 0) {
+                    flush(window, AuditMode.FIRE_AND_FORGET);
+                }
+                return windows.size() < maxKeys ? new Window(record, now + windowNanos) : null;
+            }
+            window.repeat(record.timestamp());
+            return window;
+        });
+
+        if (writeNow[0]) {
+            writer.write(record, AuditMode.FIRE_AND_FORGET);
+        } else {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Closes the windows whose time is up and writes their summary rows.
+     */
+    @Scheduled(
+            initialDelayString = "${audit.coalescing.sweep-interval:PT1S}",
+            fixedDelayString = "${audit.coalescing.sweep-interval:PT1S}"
+    )
+    public void sweep() {
+        close(System.nanoTime(), false, AuditMode.FIRE_AND_FORGET);
+    }
+
+    /**
+     * Shutdown: the writer's buffer is already drained, summaries are written
+     * synchronously (durable, outside any transaction).
+     */
+    @PreDestroy
+    public void closeAll() {
+        close(System.nanoTime(), true, AuditMode.DURABLE);
+    }
+
+    private void close(long now, boolean all, AuditMode mode) {
+        List<Key> keys = new ArrayList<>(windows.keySet());
+        for (Key key : keys) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (!all && now - window.closesAt < 0) {
+                    return window;
+                }
+                if (window.repeats > 0) {
+                    flush(window, mode);
+                }
+                return null;
+            });
+        }
+    }
+
+    // Une ligne pour toutes les répétitions de la fenêtre (la première est déjà écrite)
+    private void flush(Window window, AuditMode mode) {
+        writer.write(window.first.coalesced(window.repeats, window.firstRepeat, window.lastRepeat), mode);
+    }
+
+    int openWindows() {
+        return windows.size();
+    }
+}
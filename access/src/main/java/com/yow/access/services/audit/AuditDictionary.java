@@ -0,0 +1,177 @@
+package com.yow.access.services.audit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of the repetitive audit columns.
+ * <ul>
+ *   <li>action, target type and outcome are stored as SMALLINT codes
+ *   ({@code audit_code}); the few hundred names live in memory both ways;</li>
+ *   <li>user agents are deduplicated in {@code audit_user_agent} (keyed by
+ *   their SHA-256) and referenced by id, the hottest ones cached.</li>
+ * </ul>
+ * New entries are created in their own transaction, so a code handed out is
+ * never rolled back with the business change that first used it. Codes are
+ * stable: several instances converge on the same code through the unique
+ * (kind, name) constraint.
+ */
+@Component
+public class AuditDictionary {
+
+    public enum Kind { ACTION, TARGET_TYPE, OUTCOME }
+
+    // Ne correspond à aucun code : filtre sur un nom jamais enregistré
+    public static final short UNKNOWN = -1;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Map<Kind, Map<String, Short>> codes = new EnumMap<>(Kind.class);
+    private final Map<Kind, Map<Short, String>> names = new EnumMap<>(Kind.class);
+    private final Cache<String, Integer> userAgentIds;
+    private final Cache<Integer, String> userAgents;
+
+    public AuditDictionary(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${audit.dictionary.user-agent-cache-size:10000}") long userAgentCacheSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (Kind kind : Kind.values()) {
+            codes.put(kind, new ConcurrentHashMap<>());
+            names.put(kind, new ConcurrentHashMap<>());
+        }
+        this.userAgentIds = Caffeine.newBuilder().maximumSize(userAgentCacheSize).build();
+        this.userAgents = Caffeine.newBuilder().maximumSize(userAgentCacheSize).build();
+    }
+
+    /* =========================================================
+       CODES (action, target_type, outcome)
+       ========================================================= */
+
+    /**
+     * Code of {@code name}, created on first use; null stays null.
+     */
+    public Short encode(Kind kind, String name) {
+        if (name == null) {
+            return null;
+        }
+        Short code = find(kind, name);
+        if (code != null) {
+            return code;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            // Code suivant ; en cas de course, la contrainte unique départage et on relit
+            newTransaction.executeWithoutResult(status -> jdbcTemplate.update("""
+                    INSERT INTO audit_code (kind, code, name)
+                    SELECT ?, COALESCE(MAX(code), 0) + 1, ? FROM audit_code WHERE kind = ?
+                    ON CONFLICT DO NOTHING
+                    """, kind.name(), name, kind.name()));
+            reload(kind);
+            code = codes.get(kind).get(name);
+            if (code != null) {
+                return code;
+            }
+        }
+        throw new IllegalStateException("Could not assign an audit code to " + kind + " " + name);
+    }
+
+    /**
+     * Code of an already known {@code name}, null if it was never recorded.
+     */
+    public Short find(Kind kind, String name) {
+        Short code = codes.get(kind).get(name);
+        if (code == null) {
+            // Peut-être créé par une autre instance
+            reload(kind);
+            code = codes.get(kind).get(name);
+        }
+        return code;
+    }
+
+    public String decode(Kind kind, Short code) {
+        if (code == null) {
+            return null;
+        }
+        String name = names.get(kind).get(code);
+        if (name == null) {
+            reload(kind);
+            name = names.get(kind).get(code);
+        }
+        return name;
+    }
+
+    private void reload(Kind kind) {
+        jdbcTemplate.query(
+                "SELECT code, name FROM audit_code WHERE kind = ?",
+                rs -> {
+                    short code = rs.getShort("code");
+                    String name = rs.getString("name");
+                    codes.get(kind).put(name, code);
+                    names.get(kind).put(code, name);
+                },
+                kind.name()
+        );
+    }
+
+    /* =========================================================
+       USER AGENTS
+       ========================================================= */
+
+    /**
+     * Id of the deduplicated user agent, created on first use; null stays null.
+     */
+    public Integer encodeUserAgent(String userAgent) {
+        if (userAgent == null) {
+            return null;
+        }
+        return userAgentIds.get(userAgent, value -> {
+            byte[] digest = sha256(value);
+            return newTransaction.execute(status -> {
+                jdbcTemplate.update("""
+                        INSERT INTO audit_user_agent (digest, value) VALUES (?, ?)
+                        ON CONFLICT (digest) DO NOTHING
+                        """, digest, value);
+                return jdbcTemplate.queryForObject(
+                        "SELECT id FROM audit_user_agent WHERE digest = ?", Integer.class, digest);
+            });
+        });
+    }
+
+    public String decodeUserAgent(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        return userAgents.get(id, key -> {
+            List<String> values = jdbcTemplate.queryForList(
+                    "SELECT value FROM audit_user_agent WHERE id = ?", String.class, key);
+            return values.isEmpty() ? null : values.getFirst();
+        });
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.yow.access.services.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit rows with multi-row inserts instead of one JPA save each.
+ * <ul>
+ *   <li>{@link AuditMode#DURABLE}: rows are collected per transaction and
+ *   inserted together just before it commits (immediately without one).</li>
+ *   <li>{@link AuditMode#FIRE_AND_FORGET}: rows go to a bounded ring buffer
+ *   drained by one background thread, flushed when {@code batch-size} rows are
+ *   waiting or {@code flush-interval} after the first one.</li>
+ * </ul>
+ * Repetitive columns are dictionary-encoded ({@link AuditDictionary}).
+ * Written rows are reported to {@link AuditRollups}.
+ * Backpressure: a producer facing a full buffer waits at most
+ * {@code offer-timeout}, then the row is dropped and counted in
+ * {@code audit.writer.dropped}; business requests are never blocked longer.
+ */
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO audit_log (id, tenant_id, user_id, resource_id, action_code, target_type_code, target_id,
+                               outcome_code, message, ip_address, user_agent_id, timestamp,
+                               occurrences, last_timestamp)
+        VALUES\s""";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 14;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final AuditRollups rollups;
+    private final AuditDictionary dictionary;
+    private final BlockingQueue<AuditRecord> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            EntityManager entityManager,
+            AuditRollups rollups,
+            AuditDictionary dictionary,
+            MeterRegistry meterRegistry,
+            @Value("${audit.writer.capacity:10000}") int capacity,
+            @Value("${audit.writer.batch-size:500}") int batchSize,
+            @Value("${audit.writer.flush-interval:PT0.2S}") Duration flushInterval,
+            @Value("${audit.writer.offer-timeout:PT0.01S}") Duration offerTimeout
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.rollups = rollups;
+        this.dictionary = dictionary;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.written = meterRegistry.counter("audit.writer.written");
+        this.dropped = meterRegistry.counter("audit.writer.dropped");
+        this.failed = meterRegistry.counter("audit.writer.failed");
+        Gauge.builder("audit.writer.pending", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public void write(AuditRecord record, AuditMode mode) {
+        if (mode == AuditMode.DURABLE) {
+            writeOnCommit(record);
+        } else {
+            enqueue(record);
+        }
+    }
+
+    /* =========================================================
+       DURABLE : un insert multi-lignes par transaction
+       ========================================================= */
+
+    private void writeOnCommit(AuditRecord record) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(record));
+            rollups.record(List.of(record));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditRecord> pending = (List<AuditRecord>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AuditRecord> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Les lignes référencées (tenant, ressource...) doivent exister avant l'insert
+                    if (entityManager.isJoinedToTransaction()) {
+                        entityManager.flush();
+                    }
+                    insert(rows);
+                }
+
+                @Override
+                public void afterCommit() {
+                    rollups.record(rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditLogWriter.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(record);
+    }
+
+    /* =========================================================
+       FIRE-AND-FORGET : tampon borné + écrivain de fond
+       ========================================================= */
+
+    private void enqueue(AuditRecord record) {
+        boolean accepted;
+        try {
+            accepted = buffer.offer(record, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            dropped.increment();
+            log.warn("Audit buffer full, entry dropped: {} {} on {}",
+                    record.action(), record.outcome(), record.targetId());
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditRecord first = buffer.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Taille atteinte ou délai écoulé depuis la première ligne du lot
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    AuditRecord next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Arrêt : on vide ce qui reste avant de sortir
+                running = false;
+                buffer.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Background flush, one multi-row statement per chunk. A chunk that fails
+     * (one bad row rejects the whole statement) is retried row by row, so only
+     * the offending rows are lost and counted in {@code audit.writer.failed}.
+     */
+    void flush(List<AuditRecord> records) {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<AuditRecord> chunk = records.subList(from, Math.min(records.size(), from + batchSize));
+            try {
+                insertChunk(chunk);
+                rollups.record(chunk);
+            } catch (RuntimeException e) {
+                log.warn("Multi-row insert of {} audit entries failed, retrying row by row", chunk.size(), e);
+                insertOneByOne(chunk);
+            }
+        }
+    }
+
+    private void insertOneByOne(List<AuditRecord> chunk) {
+        List<AuditRecord> inserted = new ArrayList<>(chunk.size());
+        for (AuditRecord record : chunk) {
+            try {
+                insertChunk(List.of(record));
+                inserted.add(record);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("Failed to write audit entry {} {} on {}",
+                        record.action(), record.outcome(), record.targetId(), e);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            rollups.record(inserted);
+        }
+    }
+
+    /**
+     * Multi-row insert, split so a statement never exceeds {@code batchSize} rows.
+     */
+    void insert(List<AuditRecord> records) {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            insertChunk(records.subList(from, Math.min(records.size(), from + batchSize)));
+        }
+    }
+
+    private void insertChunk(List<AuditRecord> chunk) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        Object[] args = new Object[chunk.size() * COLUMNS];
+        int i = 0;
+        for (AuditRecord r : chunk) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = r.id();
+            args[i++] = r.tenantId();
+            args[i++] = r.userId();
+            args[i++] = r.resourceId();
+            args[i++] = dictionary.encode(AuditDictionary.Kind.ACTION, r.action());
+            args[i++] = dictionary.encode(AuditDictionary.Kind.TARGET_TYPE, r.targetType());
+            args[i++] = r.targetId();
+            args[i++] = dictionary.encode(AuditDictionary.Kind.OUTCOME, r.outcome());
+            args[i++] = r.message();
+            args[i++] = r.ipAddress();
+            args[i++] = dictionary.encodeUserAgent(r.userAgent());
+            args[i++] = Timestamp.from(r.timestamp());
+            args[i++] = r.occurrences();
+            args[i++] = r.lastTimestamp() != null ? Timestamp.from(r.lastTimestamp()) : null;
+        }
+
+        jdbcTemplate.update(sql.toString(), args);
+        written.increment(chunk.size());
+    }
+
+    /* =========================================================
+       CYCLE DE VIE
+       ========================================================= */
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("audit-writer").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Stops accepting the wait and writes what is still buffered before the
+     * datasource goes away.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's lifecycle phases (graceful shutdown runs at
+     * {@code DEFAULT_PHASE - 1024}, the server itself at {@code DEFAULT_PHASE - 2048}):
+     * started before requests are accepted, stopped only once in-flight
+     * requests have finished producing audit rows.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
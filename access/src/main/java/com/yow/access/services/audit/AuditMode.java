@@ -0,0 +1,21 @@
+package com.yow.access.services.audit;
+
+/**
+ * How an audit entry reaches the database.
+ */
+public enum AuditMode {
+
+    /**
+     * Written in the caller's transaction, with all the other durable entries
+     * of that transaction, in one multi-row insert just before commit.
+     * Rolled back with the business change; never dropped.
+     */
+    DURABLE,
+
+    /**
+     * Handed to the in-memory ring buffer and written later by the background
+     * writer, outside any business transaction. Survives a rollback of the
+     * caller, but may be dropped if the buffer stays full.
+     */
+    FIRE_AND_FORGET
+}
@@ -0,0 +1,237 @@
+package com.yow.access.services.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps the monthly partitions of {@code audit_log} (PostgreSQL, range on
+ * {@code timestamp}) in shape:
+ * <ul>
+ *   <li>partitions for the current month and {@code months-ahead} following
+ *   ones are created in advance, so inserts never land in the default
+ *   partition;</li>
+ *   <li>partitions entirely older than the longest retention in force are
+ *   dropped, or detached when {@code expired-action=DETACH} so they can be
+ *   archived (their foreign keys are dropped so purges are not blocked);</li>
+ *   <li>tenants whose {@code audit_retention_months} is shorter than that
+ *   lose their older rows with a range-bounded delete, which only touches the
+ *   partitions between the two horizons.</li>
+ * </ul>
+ * Retention is counted in whole months: N months keeps the current month and
+ * the N previous ones. Does nothing when audit_log is not partitioned.
+ */
+@Component
+public class AuditPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionMaintenance.class);
+
+    static final String PARTITION_PREFIX = "audit_log_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final List<String> DETACHED_FOREIGN_KEYS =
+            List.of("fk_audit_resource", "fk_audit_user", "fk_audit_tenant");
+
+    public enum ExpiredAction { DROP, DETACH }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int defaultRetentionMonths;
+    private final ExpiredAction expiredAction;
+
+    private volatile Boolean partitioned;
+
+    public AuditPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${audit.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${audit.retention.default-months:13}") int defaultRetentionMonths,
+            @Value("${audit.partitions.expired-action:DETACH}") ExpiredAction expiredAction
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.defaultRetentionMonths = defaultRetentionMonths;
+        this.expiredAction = expiredAction;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${audit.partitions.cron:0 15 2 * * *}")
+    public void maintain() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        try {
+            createAhead(current);
+            applyRetention(current);
+        } catch (DataAccessException e) {
+            // Nouvelle tentative au prochain passage
+            log.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    /* =========================================================
+       PARTITIONS À VENIR
+       ========================================================= */
+
+    void createAhead(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.execute(
+                        "CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                                + " PARTITION OF audit_log FOR VALUES FROM ('" + month.atDay(1)
+                                + "') TO ('" + month.plusMonths(1).atDay(1) + "')"
+                );
+            } catch (DataAccessException e) {
+                // Ex. lignes du mois déjà dans la partition par défaut : on continue, la rétention doit passer
+                log.error("Could not create audit partition {}", partitionName(month), e);
+            }
+        }
+    }
+
+    /* =========================================================
+       RÉTENTION
+       ========================================================= */
+
+    void applyRetention(YearMonth current) {
+        Map<UUID, Integer> overrides = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT id, audit_retention_months FROM tenant WHERE audit_retention_months IS NOT NULL",
+                rs -> {
+                    overrides.put(rs.getObject("id", UUID.class), rs.getInt("audit_retention_months"));
+                }
+        );
+
+        // Les partitions ne peuvent partir qu'une fois expirées pour tous les tenants
+        int keepMonths = overrides.values().stream()
+                .reduce(defaultRetentionMonths, Math::max);
+        YearMonth horizon = oldestKept(current, keepMonths);
+
+        for (String partition : expiredPartitions(listPartitions(), horizon)) {
+            if (expiredAction == ExpiredAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION " + partition);
+                dropInheritedForeignKeys(partition);
+            }
+            log.info("Audit partition {} expired ({})", partition, expiredAction);
+        }
+
+        // Rétentions plus courtes : suppression bornée aux partitions encore attachées
+        if (defaultRetentionMonths < keepMonths) {
+            int deleted = jdbcTemplate.update("""
+                    DELETE FROM audit_log
+                    WHERE timestamp >= ? AND timestamp < ?
+                      AND (tenant_id IS NULL OR tenant_id NOT IN (
+                            SELECT id FROM tenant WHERE audit_retention_months IS NOT NULL))
+                    """,
+                    horizon.atDay(1).atStartOfDay(),
+                    oldestKept(current, defaultRetentionMonths).atDay(1).atStartOfDay()
+            );
+            log.debug("Removed {} audit entries past the default retention", deleted);
+        }
+        for (Map.Entry<UUID, Integer> override : overrides.entrySet()) {
+            if (override.getValue() >= keepMonths) {
+                continue;
+            }
+            int deleted = jdbcTemplate.update("""
+                    DELETE FROM audit_log
+                    WHERE tenant_id = ? AND timestamp >= ? AND timestamp < ?
+                    """,
+                    override.getKey(),
+                    horizon.atDay(1).atStartOfDay(),
+                    oldestKept(current, override.getValue()).atDay(1).atStartOfDay()
+            );
+            log.debug("Removed {} audit entries past the retention of tenant {}", deleted, override.getKey());
+        }
+    }
+
+    // La partition détachée garde ses clés étrangères : elle bloquerait la purge des tenants, users et ressources
+    private void dropInheritedForeignKeys(String partition) {
+        for (String constraint : DETACHED_FOREIGN_KEYS) {
+            jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT IF EXISTS " + constraint);
+        }
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'audit_log'
+                """, String.class);
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            try {
+                Integer count = jdbcTemplate.queryForObject("""
+                        SELECT COUNT(*) FROM pg_partitioned_table pt
+                        JOIN pg_class c ON c.oid = pt.partrelid
+                        WHERE c.relname = 'audit_log'
+                        """, Integer.class);
+                partitioned = count != null && count > 0;
+            } catch (DataAccessException e) {
+                // Base non PostgreSQL (tests) : table simple, rien à maintenir
+                partitioned = false;
+            }
+            if (!partitioned) {
+                log.info("audit_log is not partitioned, partition maintenance disabled");
+            }
+        }
+        return partitioned;
+    }
+
+    /* =========================================================
+       CALENDRIER
+       ========================================================= */
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    // Premier mois conservé : le mois courant et les retentionMonths précédents
+    static YearMonth oldestKept(YearMonth current, int retentionMonths) {
+        return current.minusMonths(retentionMonths);
+    }
+
+    // Partitions mensuelles entièrement antérieures à horizon ; la partition par défaut n'expire jamais
+    static List<String> expiredPartitions(List<String> partitions, YearMonth horizon) {
+        List<String> expired = new ArrayList<>();
+        for (String name : partitions) {
+            if (!name.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            try {
+                YearMonth month = YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+                if (month.isBefore(horizon)) {
+                    expired.add(name);
+                }
+            } catch (DateTimeParseException e) {
+                log.warn("Unexpected audit partition name: {}", name);
+            }
+        }
+        expired.sort(null);
+        return expired;
+    }
+}
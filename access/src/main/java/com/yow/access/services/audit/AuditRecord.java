@@ -0,0 +1,76 @@
+package com.yow.access.services.audit;
+
+import com.yow.access.entities.AuditLog;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat, immutable copy of an {@link AuditLog} row: only ids, so it can leave
+ * the persistence context and be written by another thread.
+ * {@code occurrences} is above 1 for coalesced repeats, which then span
+ * {@code timestamp} to {@code lastTimestamp}.
+ */
+public record AuditRecord(
+        UUID id,
+        UUID tenantId,
+        UUID userId,
+        UUID resourceId,
+        String action,
+        String targetType,
+        UUID targetId,
+        String outcome,
+        String message,
+        String ipAddress,
+        String userAgent,
+        Instant timestamp,
+        int occurrences,
+        Instant lastTimestamp
+) {
+
+    // Occurrence unique
+    public AuditRecord(
+            UUID id,
+            UUID tenantId,
+            UUID userId,
+            UUID resourceId,
+            String action,
+            String targetType,
+            UUID targetId,
+            String outcome,
+            String message,
+            String ipAddress,
+            String userAgent,
+            Instant timestamp
+    ) {
+        this(id, tenantId, userId, resourceId, action, targetType, targetId, outcome,
+                message, ipAddress, userAgent, timestamp, 1, null);
+    }
+
+    /**
+     * The same event repeated {@code occurrences} times from {@code first} to {@code last}.
+     */
+    public AuditRecord coalesced(int occurrences, Instant first, Instant last) {
+        return new AuditRecord(UUID.randomUUID(), tenantId, userId, resourceId, action, targetType, targetId,
+                outcome, message, ipAddress, userAgent, first, occurrences, last);
+    }
+
+    public static AuditRecord of(AuditLog log) {
+        return new AuditRecord(
+                log.getId() != null ? log.getId() : UUID.randomUUID(),
+                log.getTenant() != null ? log.getTenant().getId() : null,
+                log.getUser() != null ? log.getUser().getId() : null,
+                log.getResource() != null ? log.getResource().getId() : null,
+                log.getAction(),
+                log.getTargetType(),
+                log.getTargetId(),
+                log.getOutcome(),
+                log.getMessage(),
+                log.getIpAddress(),
+                log.getUserAgent(),
+                log.getTimestamp(),
+                log.getOccurrences(),
+                log.getLastTimestamp()
+        );
+    }
+}
@@ -0,0 +1,185 @@
+package com.yow.access.services.audit;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally maintained audit counts per (tenant, hour|day, action, outcome)
+ * in {@code audit_rollup_hourly} / {@code audit_rollup_daily}.
+ * <ul>
+ *   <li>{@link AuditLogWriter} reports the rows it actually wrote (after
+ *   commit for durable ones); they are summed in memory per bucket.</li>
+ *   <li>A single flusher upserts the sums every {@code flush-interval}, so
+ *   request threads never contend on the hot rollup rows.</li>
+ *   <li>The previous day is recomputed from {@code audit_log} every night,
+ *   which repairs what a crash between two flushes may have lost.</li>
+ * </ul>
+ * Buckets follow the wall-clock time stored in {@code audit_log.timestamp},
+ * so incremental and recomputed counts land in the same rows.
+ */
+@Component
+public class AuditRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRollups.class);
+
+    // Entrées sans tenant : la clé primaire des agrégats n'admet pas NULL
+    public static final UUID NO_TENANT = new UUID(0L, 0L);
+
+    private static final int UPSERT_CHUNK = 500;
+
+    record Key(UUID tenantId, LocalDateTime bucket, String action, String outcome) {
+        Key toDay() {
+            return new Key(tenantId, bucket.truncatedTo(ChronoUnit.DAYS), action, outcome);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Key, Long> pending = new ConcurrentHashMap<>();
+
+    public AuditRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Counts rows that are now in audit_log (coalesced rows for all their occurrences).
+     */
+    public void record(List<AuditRecord> records) {
+        Map<Key, Long> counts = new HashMap<>();
+        for (AuditRecord r : records) {
+            counts.merge(hourKey(r), (long) r.occurrences(), Long::sum);
+        }
+        counts.forEach((key, count) -> pending.merge(key, count, Long::sum));
+    }
+
+    static Key hourKey(AuditRecord r) {
+        // Même conversion que l'insert dans audit_log : date_trunc donnera le même seau
+        LocalDateTime hour = Timestamp.from(r.timestamp()).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        return new Key(r.tenantId() != null ? r.tenantId() : NO_TENANT, hour, r.action(), r.outcome());
+    }
+
+    /* =========================================================
+       ÉCRITURE DES DELTAS
+       ========================================================= */
+
+    @Scheduled(
+            initialDelayString = "${audit.rollups.flush-interval:PT10S}",
+            fixedDelayString = "${audit.rollups.flush-interval:PT10S}"
+    )
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Key, Long> hourly = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            // remove atomique : un incrément concurrent recrée simplement l'entrée
+            Long count = pending.remove(key);
+            if (count != null) {
+                hourly.put(key, count);
+            }
+        }
+        if (hourly.isEmpty()) {
+            return;
+        }
+
+        Map<Key, Long> daily = new HashMap<>();
+        hourly.forEach((key, count) -> daily.merge(key.toDay(), count, Long::sum));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                upsert("audit_rollup_hourly", hourly);
+                upsert("audit_rollup_daily", daily);
+            });
+        } catch (RuntimeException e) {
+            // Les deltas sont remis en attente pour le prochain passage
+            hourly.forEach((key, count) -> pending.merge(key, count, Long::sum));
+            log.warn("Audit rollup flush failed, {} buckets kept for retry: {}", hourly.size(), e.getMessage());
+        }
+    }
+
+    private void upsert(String table, Map<Key, Long> counts) {
+        List<Map.Entry<Key, Long>> entries = new ArrayList<>(counts.entrySet());
+        for (int from = 0; from < entries.size(); from += UPSERT_CHUNK) {
+            List<Map.Entry<Key, Long>> chunk = entries.subList(from, Math.min(entries.size(), from + UPSERT_CHUNK));
+
+            StringBuilder sql = new StringBuilder("INSERT INTO ")
+                    .append(table)
+                    .append(" (tenant_id, bucket, action, outcome, count) VALUES ");
+            Object[] args = new Object[chunk.size() * 5];
+            int i = 0;
+            for (Map.Entry<Key, Long> entry : chunk) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("(?, ?, ?, ?, ?)");
+                args[i++] = entry.getKey().tenantId();
+                args[i++] = Timestamp.valueOf(entry.getKey().bucket());
+                args[i++] = entry.getKey().action();
+                args[i++] = entry.getKey().outcome();
+                args[i++] = entry.getValue();
+            }
+            sql.append(" ON CONFLICT (tenant_id, bucket, action, outcome) DO UPDATE SET count = ")
+                    .append(table)
+                    .append(".count + EXCLUDED.count");
+
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    /* =========================================================
+       RECALCUL NOCTURNE
+       ========================================================= */
+
+    @Scheduled(cron = "${audit.rollups.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        flush(); // Les deltas de la veille partent avant d'être écrasés par le recalcul
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        rebuild(yesterday, yesterday.plusDays(1));
+    }
+
+    /**
+     * Recomputes the rollups of [from, to) from audit_log, in one transaction.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM audit_rollup_hourly WHERE bucket >= ? AND bucket < ?", start, end);
+            jdbcTemplate.update("DELETE FROM audit_rollup_daily WHERE bucket >= ? AND bucket < ?", start, end);
+            jdbcTemplate.update("""
+                    INSERT INTO audit_rollup_hourly (tenant_id, bucket, action, outcome, count)
+                    SELECT COALESCE(a.tenant_id, ?), date_trunc('hour', a.timestamp), ac.name, oc.name, SUM(a.occurrences)
+                    FROM audit_log a
+                    JOIN audit_code ac ON ac.kind = 'ACTION' AND ac.code = a.action_code
+                    JOIN audit_code oc ON oc.kind = 'OUTCOME' AND oc.code = a.outcome_code
+                    WHERE a.timestamp >= ? AND a.timestamp < ?
+                    GROUP BY 1, 2, 3, 4
+                    """, NO_TENANT, start, end);
+            jdbcTemplate.update("""
+                    INSERT INTO audit_rollup_daily (tenant_id, bucket, action, outcome, count)
+                    SELECT tenant_id, date_trunc('day', bucket), action, outcome, SUM(count)
+                    FROM audit_rollup_hourly
+                    WHERE bucket >= ? AND bucket < ?
+                    GROUP BY 1, 2, 3, 4
+                    """, start, end);
+        });
+        log.info("Audit rollups rebuilt for [{}, {})", from, to);
+    }
+}
@@ -0,0 +1,70 @@
+package com.yow.access.services.rbac;
+
+import com.yow.access.entities.Permission;
+import com.yow.access.entities.Role;
+
+/**
+ * Immutable compiled form of a {@link Role}: its permissions as a fixed-width
+ * bitset keyed by {@code Permission.id}, plus the ADMIN / TENANT_ADMIN flags
+ * the RBAC engine special-cases.
+ */
+public final class CompiledRole {
+
+    public static final String ADMIN = "ADMIN";
+    public static final String TENANT_ADMIN = "TENANT_ADMIN";
+
+    private final short id;
+    private final String name;
+    private final long[] bits;
+    private final boolean admin;
+    private final boolean tenantAdmin;
+
+    private CompiledRole(short id, String name, long[] bits) {
+        this.id = id;
+        this.name = name;
+        this.bits = bits;
+        this.admin = ADMIN.equals(name);
+        this.tenantAdmin = TENANT_ADMIN.equals(name);
+    }
+
+    /**
+     * Compiles a role into a bitset of {@code words} longs (grown if one of its
+     * permission ids does not fit).
+     */
+    public static CompiledRole compile(Role role, int words) {
+        int width = Math.max(words, 1);
+        for (Permission p : role.getPermissions()) {
+            if (p.getId() != null && p.getId() >= 0) {
+                width = Math.max(width, (p.getId() >>> 6) + 1);
+            }
+        }
+
+        long[] bits = new long[width];
+        for (Permission p : role.getPermissions()) {
+            if (p.getId() != null && p.getId() >= 0) {
+                bits[p.getId() >>> 6] |= 1L << p.getId();
+            }
+        }
+        return new CompiledRole(role.getId(), role.getName(), bits);
+    }
+
+    public boolean has(PermissionHandle permission) {
+        return permission.matches(bits);
+    }
+
+    /**
+     * ORs this role's permissions into {@code target} (sized by the caller).
+     */
+    public void orInto(long[] target) {
+        int n = Math.min(target.length, bits.length);
+        for (int i = 0; i < n; i++) {
+            target[i] |= bits[i];
+        }
+    }
+
+    public short getId() { return id; }
+    public String getName() { return name; }
+    public boolean isAdmin() { return admin; }
+    public boolean isTenantAdmin() { return tenantAdmin; }
+    public int width() { return bits.length; }
+}
@@ -0,0 +1,93 @@
+package com.yow.access.services.rbac;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A user's bindings inside one tenant, as Euler-tour intervals
+ * {@code [pre, post]} of the bound resources sorted by {@code pre}.
+ * A binding applies to a node when the node's pre-order number falls inside
+ * its interval, so a check scans only the intervals that start before it.
+ */
+public final class GrantIntervals {
+
+    private final TenantTree tree;
+    private final int[] lo;
+    private final int[] hi;
+    private final CompiledRole[] roles;
+
+    private GrantIntervals(TenantTree tree, int[] lo, int[] hi, CompiledRole[] roles) {
+        this.tree = tree;
+        this.lo = lo;
+        this.hi = hi;
+        this.roles = roles;
+    }
+
+    static GrantIntervals build(TenantTree tree, UserBindings bindings) {
+        Integer[] order = new Integer[bindings.size()];
+        int[] nodes = new int[bindings.size()];
+        int count = 0;
+        for (int i = 0; i < bindings.size(); i++) {
+            if (!tree.getTenantId().equals(bindings.tenantId(i))) {
+                continue;
+            }
+            int node = tree.indexOf(bindings.resourceId(i));
+            if (node < 0) {
+                continue;
+            }
+            nodes[i] = node;
+            order[count++] = i;
+        }
+
+        Integer[] sorted = Arrays.copyOf(order, count);
+        Arrays.sort(sorted, Comparator.comparingInt(i -> tree.pre(nodes[i])));
+
+        int[] lo = new int[count];
+        int[] hi = new int[count];
+        CompiledRole[] roles = new CompiledRole[count];
+        for (int k = 0; k < count; k++) {
+            int node = nodes[sorted[k]];
+            lo[k] = tree.pre(node);
+            hi[k] = tree.post(node);
+            roles[k] = bindings.role(sorted[k]);
+        }
+        return new GrantIntervals(tree, lo, hi, roles);
+    }
+
+    public TenantTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Does any binding on the node or one of its ancestors grant the permission?
+     */
+    public boolean grants(int node, PermissionHandle permission) {
+        int x = tree.pre(node);
+        for (int k = 0; k < lo.length && lo[k] <= x; k++) {
+            if (x <= hi[k] && roles[k].has(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ORs every permission applying to the node into {@code bits};
+     * returns true if one of the applying roles is TENANT_ADMIN.
+     */
+    public boolean collect(int node, long[] bits) {
+        int x = tree.pre(node);
+        boolean tenantAdmin = false;
+        for (int k = 0; k < lo.length && lo[k] <= x; k++) {
+            if (x <= hi[k]) {
+                roles[k].orInto(bits);
+                tenantAdmin |= roles[k].isTenantAdmin();
+            }
+        }
+        return tenantAdmin;
+    }
+
+    public boolean isEmpty() {
+        return lo.length == 0;
+    }
+}
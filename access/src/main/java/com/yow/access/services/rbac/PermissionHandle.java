@@ -0,0 +1,54 @@
+package com.yow.access.services.rbac;
+
+/**
+ * Pre-resolved permission: the word index and bit mask of {@code Permission.id}
+ * inside a {@link CompiledRole} bitset.
+ * Resolved once through {@link RoleCatalog#permission(String)}, then matched
+ * against any number of roles without string comparison or allocation.
+ */
+public final class PermissionHandle {
+
+    private final String name;
+    private final short id;
+    private final int word;
+    private final long mask;
+
+    private PermissionHandle(String name, short id, int word, long mask) {
+        this.name = name;
+        this.id = id;
+        this.word = word;
+        this.mask = mask;
+    }
+
+    static PermissionHandle of(String name, short id) {
+        return new PermissionHandle(name, id, id >>> 6, 1L << id);
+    }
+
+    /**
+     * Handle for a permission name unknown to the catalog: never matches any role.
+     */
+    static PermissionHandle unresolved(String name) {
+        return new PermissionHandle(name, (short) -1, 0, 0L);
+    }
+
+    /**
+     * One AND plus a test.
+     */
+    public boolean matches(long[] bits) {
+        return word < bits.length && (bits[word] & mask) != 0;
+    }
+
+    public boolean isResolved() {
+        return mask != 0L;
+    }
+
+    public String getName() { return name; }
+    public short getId() { return id; }
+    int getWord() { return word; }
+    long getMask() { return mask; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
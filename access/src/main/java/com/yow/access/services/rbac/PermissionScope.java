@@ -0,0 +1,91 @@
+package com.yow.access.services.rbac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Effective permissions of one user, pushed down a subtree top-down:
+ * a child's scope is its parent's plus the roles bound directly on it, so a
+ * whole tree is annotated without walking up from every node.
+ * Nodes without a direct binding share their parent's scope instance, and
+ * with it the decoded name set.
+ */
+public final class PermissionScope {
+
+    private final Map<UUID, List<CompiledRole>> direct;
+    private final Function<PermissionScope, Set<String>> decoder;
+    private final boolean admin;
+    private final long[] bits;
+    private final boolean tenantAdmin;
+
+    private Set<String> names;
+
+    private PermissionScope(
+            Map<UUID, List<CompiledRole>> direct,
+            Function<PermissionScope, Set<String>> decoder,
+            boolean admin,
+            long[] bits,
+            boolean tenantAdmin
+    ) {
+        this.direct = direct;
+        this.decoder = decoder;
+        this.admin = admin;
+        this.bits = bits;
+        this.tenantAdmin = tenantAdmin;
+    }
+
+    /**
+     * Scope above a subtree root: {@code inherited} holds what its ancestors
+     * grant; call {@link #child(UUID)} with the root itself to enter the tree.
+     */
+    public static PermissionScope above(
+            UserBindings bindings,
+            long[] inherited,
+            boolean inheritedTenantAdmin,
+            Function<PermissionScope, Set<String>> decoder
+    ) {
+        Map<UUID, List<CompiledRole>> direct = new HashMap<>();
+        for (int i = 0; i < bindings.size(); i++) {
+            direct.computeIfAbsent(bindings.resourceId(i), id -> new ArrayList<>(1)).add(bindings.role(i));
+        }
+        return new PermissionScope(direct, decoder, bindings.isAdmin(), inherited, inheritedTenantAdmin);
+    }
+
+    public PermissionScope child(UUID resourceId) {
+        List<CompiledRole> roles = direct.get(resourceId);
+        if (roles == null) {
+            return this;
+        }
+        long[] childBits = bits.clone();
+        boolean childTenantAdmin = tenantAdmin;
+        for (CompiledRole role : roles) {
+            role.orInto(childBits);
+            childTenantAdmin |= role.isTenantAdmin();
+        }
+        return new PermissionScope(direct, decoder, admin, childBits, childTenantAdmin);
+    }
+
+    public boolean has(PermissionHandle permission) {
+        return admin || permission.matches(bits);
+    }
+
+    /**
+     * Permission names of this scope, decoded once per scope instance.
+     */
+    public Set<String> names() {
+        if (names == null) {
+            names = Collections.unmodifiableSet(decoder.apply(this));
+        }
+        return names;
+    }
+
+    public boolean isAdmin() { return admin; }
+    public boolean isTenantAdmin() { return tenantAdmin; }
+    public long[] bits() { return bits; }
+}
@@ -0,0 +1,51 @@
+package com.yow.access.services.rbac;
+
+import com.yow.access.events.ResourceTreeChangedEvent;
+import com.yow.access.repositories.ResourceRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one immutable {@link TenantTree} per tenant, loaded on first use with a
+ * single (id, parent_id, deleted_at) scan of the tenant's resources.
+ * Structural changes published by ResourceService swap in a freshly built copy
+ * after commit; readers only ever see a complete tree and never lock.
+ */
+@Component
+public class ResourceTreeIndex {
+
+    private final ResourceRepository resourceRepository;
+    private final Map<UUID, TenantTree> trees = new ConcurrentHashMap<>();
+
+    public ResourceTreeIndex(ResourceRepository resourceRepository) {
+        this.resourceRepository = resourceRepository;
+    }
+
+    public TenantTree get(UUID tenantId) {
+        TenantTree tree = trees.get(tenantId);
+        if (tree != null) {
+            return tree;
+        }
+        return trees.computeIfAbsent(tenantId, this::load);
+    }
+
+    /**
+     * Copy-on-write swap; tenants never loaded stay lazy.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourceTreeChanged(ResourceTreeChangedEvent event) {
+        trees.computeIfPresent(event.tenantId(), (tenantId, previous) -> load(tenantId));
+    }
+
+    public void evict(UUID tenantId) {
+        trees.remove(tenantId);
+    }
+
+    private TenantTree load(UUID tenantId) {
+        return TenantTree.build(tenantId, resourceRepository.findTreeEdgesByTenantId(tenantId));
+    }
+}
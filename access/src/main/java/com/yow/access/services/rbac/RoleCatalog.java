@@ -0,0 +1,129 @@
+package com.yow.access.services.rbac;
+
+import com.yow.access.entities.Permission;
+import com.yow.access.entities.Role;
+import com.yow.access.repositories.PermissionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled role catalog.
+ * Permission names are resolved once into {@link PermissionHandle}s and each
+ * {@link Role} is compiled once into a {@link CompiledRole} bitset, so that the
+ * RBAC engine matches a permission with one AND instead of streaming over
+ * {@code Role.getPermissions()} and comparing names.
+ * The permission table is loaded lazily (it is seeded by DataInitializer after
+ * the context starts) and can be reloaded with {@link #refresh()}.
+ */
+@Component
+public class RoleCatalog {
+
+    private final PermissionRepository permissionRepository;
+
+    private final Map<Short, CompiledRole> roles = new ConcurrentHashMap<>();
+    private final Map<String, PermissionHandle> unresolved = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    public RoleCatalog(PermissionRepository permissionRepository) {
+        this.permissionRepository = permissionRepository;
+    }
+
+    /**
+     * Resolves a permission name. Unknown names yield a handle that never matches.
+     */
+    public PermissionHandle permission(String name) {
+        if (name == null || name.isBlank()) {
+            return PermissionHandle.unresolved(name);
+        }
+        PermissionHandle handle = snapshot().handles.get(name);
+        if (handle != null) {
+            return handle;
+        }
+        return unresolved.computeIfAbsent(name, PermissionHandle::unresolved);
+    }
+
+    /**
+     * Compiled form of a role, compiled on first use.
+     */
+    public CompiledRole compile(Role role) {
+        int words = snapshot().words;
+        if (role.getId() == null) {
+            return CompiledRole.compile(role, words);
+        }
+        return roles.computeIfAbsent(role.getId(), id -> CompiledRole.compile(role, words));
+    }
+
+    /**
+     * Empty bitset wide enough for every known permission.
+     */
+    public long[] newBitset() {
+        return new long[snapshot().words];
+    }
+
+    /**
+     * Decodes a bitset back to permission names.
+     */
+    public Set<String> names(long[] bits) {
+        Snapshot s = snapshot();
+        Set<String> names = new LinkedHashSet<>();
+        for (PermissionHandle handle : s.handles.values()) {
+            if (handle.matches(bits)) {
+                names.add(handle.getName());
+            }
+        }
+        return names;
+    }
+
+    public void evictRole(Short roleId) {
+        if (roleId != null) {
+            roles.remove(roleId);
+        }
+    }
+
+    /**
+     * Drops every compiled role and reloads the permission table.
+     */
+    public synchronized void refresh() {
+        snapshot = load();
+        unresolved.clear();
+        roles.clear();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    private Snapshot load() {
+        List<Permission> permissions = permissionRepository.findAll();
+        Map<String, PermissionHandle> handles = new HashMap<>();
+        int maxId = 0;
+        for (Permission p : permissions) {
+            if (p.getId() == null || p.getId() < 0) {
+                continue;
+            }
+            handles.put(p.getName(), PermissionHandle.of(p.getName(), p.getId()));
+            maxId = Math.max(maxId, p.getId());
+        }
+        return new Snapshot(Map.copyOf(handles), (maxId >>> 6) + 1);
+    }
+
+    private record Snapshot(Map<String, PermissionHandle> handles, int words) {
+    }
+}
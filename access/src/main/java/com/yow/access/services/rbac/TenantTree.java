@@ -0,0 +1,157 @@
+package com.yow.access.services.rbac;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable in-memory copy of one tenant's resource hierarchy, encoded as an
+ * Euler tour: every node gets a pre-order number on entry and a post-order
+ * number on exit from a single counter, so "a is an ancestor of d" is
+ * {@code pre[a] <= pre[d] && pre[d] <= post[a]}.
+ * Soft-deleted nodes and everything below them, as well as nodes unreachable
+ * from a root (corrupted cycles), are left out of the index and remembered as
+ * deleted.
+ * Never mutated after construction: structural changes build a new instance.
+ */
+public final class TenantTree {
+
+    private final UUID tenantId;
+    private final UUID[] ids;
+    private final int[] parent;
+    private final int[] pre;
+    private final int[] post;
+    private final Map<UUID, Integer> index;
+    private final Set<UUID> deleted;
+
+    private TenantTree(
+            UUID tenantId,
+            UUID[] ids,
+            int[] parent,
+            int[] pre,
+            int[] post,
+            Map<UUID, Integer> index,
+            Set<UUID> deleted
+    ) {
+        this.tenantId = tenantId;
+        this.ids = ids;
+        this.parent = parent;
+        this.pre = pre;
+        this.post = post;
+        this.index = index;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Builds the tree from (id, parentId[, deletedAt]) rows, in any order.
+     * A non-null third column marks a soft-deleted subtree root.
+     */
+    public static TenantTree build(UUID tenantId, List<Object[]> edges) {
+        int n = edges.size();
+        UUID[] ids = new UUID[n];
+        Map<UUID, Integer> positions = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ids[i] = (UUID) edges.get(i)[0];
+            positions.put(ids[i], i);
+        }
+
+        // Parent indexes and children in CSR layout
+        int[] parent = new int[n];
+        int[] childStart = new int[n + 1];
+        boolean[] softDeleted = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Object[] edge = edges.get(i);
+            softDeleted[i] = edge.length > 2 && edge[2] != null;
+            Integer p = positions.get((UUID) edge[1]);
+            parent[i] = p != null ? p : -1;
+            if (parent[i] >= 0) {
+                childStart[parent[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        int[] children = new int[childStart[n]];
+        int[] fill = Arrays.copyOf(childStart, n);
+        for (int i = 0; i < n; i++) {
+            if (parent[i] >= 0) {
+                children[fill[parent[i]]++] = i;
+            }
+        }
+
+        // Iterative DFS from every root
+        int[] pre = new int[n];
+        int[] post = new int[n];
+        Arrays.fill(pre, -1);
+        Arrays.fill(post, -1);
+        int[] stack = new int[n];
+        int[] cursor = Arrays.copyOf(childStart, n);
+        int clock = 0;
+        for (int root = 0; root < n; root++) {
+            if (parent[root] >= 0 || softDeleted[root]) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            pre[root] = clock++;
+            while (top >= 0) {
+                int v = stack[top];
+                if (cursor[v] < childStart[v + 1]) {
+                    int c = children[cursor[v]++];
+                    if (softDeleted[c]) {
+                        continue; // Sous-arbre supprimé : jamais visité
+                    }
+                    pre[c] = clock++;
+                    stack[++top] = c;
+                } else {
+                    post[v] = clock++;
+                    top--;
+                }
+            }
+        }
+
+        Set<UUID> deleted = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            if (pre[i] < 0) {
+                positions.remove(ids[i]);
+                deleted.add(ids[i]);
+            }
+        }
+
+        return new TenantTree(tenantId, ids, parent, pre, post, positions, deleted);
+    }
+
+    /**
+     * Node index of a resource, or -1 if it is not part of this tree.
+     */
+    public int indexOf(UUID resourceId) {
+        Integer i = index.get(resourceId);
+        return i != null ? i : -1;
+    }
+
+    /**
+     * True if the resource is soft-deleted or sits under a soft-deleted
+     * ancestor (purge pending): callers treat it as gone.
+     */
+    public boolean isDeleted(UUID resourceId) {
+        return deleted.contains(resourceId);
+    }
+
+    /**
+     * Two int comparisons; a node is its own ancestor.
+     */
+    public boolean isAncestor(int ancestor, int descendant) {
+        return pre[ancestor] <= pre[descendant] && pre[descendant] <= post[ancestor];
+    }
+
+    public UUID getTenantId() { return tenantId; }
+    public int size() { return index.size(); }
+    public UUID id(int node) { return ids[node]; }
+    public int parent(int node) { return parent[node]; }
+    public int pre(int node) { return pre[node]; }
+    public int post(int node) { return post[node]; }
+}
@@ -0,0 +1,114 @@
+package com.yow.access.services.rbac;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yow.access.entities.UserRoleResource;
+import com.yow.access.events.RoleChangedEvent;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.UserRepository;
+import com.yow.access.repositories.UserRoleResourceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, concurrent cache of each user's compiled bindings, keyed by userId.
+ * A miss costs one query (bindings with role, permissions and resource fetched
+ * together); a hit costs no SQL at all.
+ * Entries are invalidated after commit by {@link UserAccessChangedEvent} and
+ * {@link RoleChangedEvent}; the TTL is only a safety net. Tree changes do not
+ * touch this cache: bindings hold resource ids only, and inheritance is
+ * resolved against the tenant tree kept by {@link ResourceTreeIndex}.
+ * Hit/miss/eviction stats are published as {@code cache.*} metrics with
+ * {@code cache=rbac.bindings} on the actuator.
+ */
+@Component
+public class UserBindingCache {
+
+    private final UserRoleResourceRepository urrRepository;
+    private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final Cache<UUID, UserBindings> cache;
+
+    public UserBindingCache(
+            UserRoleResourceRepository urrRepository,
+            UserRepository userRepository,
+            RoleCatalog roleCatalog,
+            MeterRegistry meterRegistry,
+            @Value("${rbac.binding-cache.max-size:10000}") long maxSize,
+            @Value("${rbac.binding-cache.ttl:PT10M}") Duration ttl
+    ) {
+        this.urrRepository = urrRepository;
+        this.userRepository = userRepository;
+        this.roleCatalog = roleCatalog;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rbac.bindings");
+    }
+
+    public UserBindings get(UUID userId) {
+        return cache.get(userId, this::load);
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /* ============================
+       EVENT-DRIVEN INVALIDATION
+       ============================ */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        cache.invalidate(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        roleCatalog.evictRole(event.roleId());
+        invalidateIf(bindings -> bindings.usesRole(event.roleId()));
+    }
+
+    private void invalidateIf(Predicate<UserBindings> predicate) {
+        cache.asMap().values().removeIf(predicate);
+    }
+
+    /* ============================
+       LOADER
+       ============================ */
+    private UserBindings load(UUID userId) {
+        boolean enabled = userRepository.findEnabledById(userId).orElse(false);
+        if (!enabled) {
+            return UserBindings.empty(userId);
+        }
+
+        List<UserRoleResource> rows = urrRepository.findAllByUserIdWithRoleAndResource(userId);
+        if (rows == null) {
+            return UserBindings.empty(userId);
+        }
+        int n = rows.size();
+        UUID[] resourceIds = new UUID[n];
+        UUID[] tenantIds = new UUID[n];
+        CompiledRole[] roles = new CompiledRole[n];
+        for (int i = 0; i < n; i++) {
+            UserRoleResource urr = rows.get(i);
+            resourceIds[i] = urr.getResource().getId();
+            tenantIds[i] = urr.getResource().getTenant().getId();
+            roles[i] = roleCatalog.compile(urr.getRole());
+        }
+        return new UserBindings(userId, resourceIds, tenantIds, roles);
+    }
+}
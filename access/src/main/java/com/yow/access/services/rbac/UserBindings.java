@@ -0,0 +1,80 @@
+package com.yow.access.services.rbac;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, compiled snapshot of a user's role bindings:
+ * parallel arrays of bound resource, owning tenant and compiled role.
+ * A disabled user is represented by an empty snapshot.
+ */
+public final class UserBindings {
+
+    private static final UUID[] NO_IDS = new UUID[0];
+    private static final CompiledRole[] NO_ROLES = new CompiledRole[0];
+
+    private final UUID userId;
+    private final UUID[] resourceIds;
+    private final UUID[] tenantIds;
+    private final CompiledRole[] roles;
+    private final boolean admin;
+
+    // Interval lists per tenant, rebuilt whenever the tenant tree is swapped
+    private final Map<UUID, GrantIntervals> intervals = new ConcurrentHashMap<>();
+
+    public UserBindings(UUID userId, UUID[] resourceIds, UUID[] tenantIds, CompiledRole[] roles) {
+        this.userId = userId;
+        this.resourceIds = resourceIds;
+        this.tenantIds = tenantIds;
+        this.roles = roles;
+
+        boolean anyAdmin = false;
+        for (CompiledRole role : roles) {
+            anyAdmin |= role.isAdmin();
+        }
+        this.admin = anyAdmin;
+    }
+
+    public static UserBindings empty(UUID userId) {
+        return new UserBindings(userId, NO_IDS, NO_IDS, NO_ROLES);
+    }
+
+    public UUID getUserId() { return userId; }
+    public int size() { return roles.length; }
+    public boolean isEmpty() { return roles.length == 0; }
+    public boolean isAdmin() { return admin; }
+    public UUID resourceId(int i) { return resourceIds[i]; }
+    public UUID tenantId(int i) { return tenantIds[i]; }
+    public CompiledRole role(int i) { return roles[i]; }
+
+    /**
+     * This user's bindings inside the given tenant tree, as sorted intervals.
+     */
+    public GrantIntervals intervals(TenantTree tree) {
+        GrantIntervals current = intervals.get(tree.getTenantId());
+        if (current == null || current.getTree() != tree) {
+            current = GrantIntervals.build(tree, this);
+            intervals.put(tree.getTenantId(), current);
+        }
+        return current;
+    }
+
+    public boolean touchesTenant(UUID tenantId) {
+        for (UUID t : tenantIds) {
+            if (t.equals(tenantId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean usesRole(Short roleId) {
+        for (CompiledRole role : roles) {
+            if (roleId != null && role.getId() == roleId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
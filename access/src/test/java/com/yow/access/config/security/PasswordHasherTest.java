@@ -0,0 +1,96 @@
+package com.yow.access.config.security;
+
+import com.yow.access.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour le pool de hachage des mots de passe
+ */
+@DisplayName("PasswordHasher Tests")
+class PasswordHasherTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher hasher;
+
+    // Encodeur qui bloque jusqu'à release : simule un hachage lent
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Hachage et vérification sur le pool")
+    void encodeAndMatches_RunOnPool() {
+        release.countDown();
+        hasher = new PasswordHasher(slowEncoder, meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = hasher.encode("secret");
+
+        assertEquals("hash:secret", hash);
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("other", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    @DisplayName("❌ File pleine - refus immédiat")
+    void encode_QueueFull_FailsFast() throws Exception {
+        hasher = new PasswordHasher(slowEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("b"));
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> hasher.encode("c"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("❌ Attente trop longue - refusé")
+    void encode_Timeout_Fails() {
+        hasher = new PasswordHasher(slowEncoder, meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        assertThrows(PasswordHashingBusyException.class, () -> hasher.encode("slow"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.yow.access.config.security;
+
+import com.yow.access.config.security.jwt.AccessTokenRevocations;
+import com.yow.access.config.security.jwt.AuthenticatedPrincipalCache;
+import com.yow.access.config.security.jwt.JwtAuthenticationFilter;
+import com.yow.access.config.security.jwt.JwtService;
+import com.yow.access.entities.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.endpoint.EndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.micrometer.metrics.autoconfigure.MetricsAutoConfiguration;
+import org.springframework.boot.micrometer.metrics.autoconfigure.MetricsEndpointAutoConfiguration;
+import org.springframework.boot.micrometer.metrics.autoconfigure.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.autoconfigure.DispatcherServletAutoConfiguration;
+import org.springframework.boot.webmvc.autoconfigure.actuate.web.WebMvcEndpointManagementContextConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la chaîne de sécurité (filtre JWT et règles d'accès) sur un
+ * contrôleur de test et l'endpoint actuator des métriques, sans base de données
+ */
+@WebMvcTest(
+        controllers = SecurityConfigTest.ProbeController.class,
+        properties = "management.endpoints.web.exposure.include=metrics"
+)
+@ImportAutoConfiguration({
+        DispatcherServletAutoConfiguration.class,
+        EndpointAutoConfiguration.class,
+        WebEndpointAutoConfiguration.class,
+        WebMvcEndpointManagementContextConfiguration.class,
+        MetricsAutoConfiguration.class,
+        SimpleMetricsExportAutoConfiguration.class,
+        MetricsEndpointAutoConfiguration.class
+})
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, SecurityConfigTest.ProbeController.class, SecurityConfigTest.TestBeans.class})
+@DisplayName("SecurityConfig Tests")
+class SecurityConfigTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @RestController
+    static class ProbeController {
+
+        @GetMapping("/api/probe")
+        String probe() {
+            return "ok";
+        }
+    }
+
+    @TestConfiguration
+    static class TestBeans {
+
+        @Bean
+        JwtService jwtService() {
+            return new JwtService(SECRET, 60_000, 100);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticatedPrincipalCache principalCache;
+
+    @MockitoBean
+    private AccessTokenRevocations revocations;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        AppUser user = new AppUser();
+        user.setId(userId);
+        user.setEnabled(true);
+        when(principalCache.get(eq(userId), anyInt())).thenReturn(user);
+    }
+
+    @Test
+    @DisplayName("✅ Jeton valide - 200")
+    void protectedEndpoint_ValidToken_Ok() throws Exception {
+        String token = jwtService.generateToken(userId, "alice@example.com", List.of("USER"), 0);
+
+        mockMvc.perform(get("/api/probe").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("❌ Jeton expiré - 401, pas 403")
+    void protectedEndpoint_ExpiredToken_Unauthorized() throws Exception {
+        String expired = new JwtService(SECRET, -60_000, 100)
+                .generateToken(userId, "alice@example.com", List.of("USER"), 0);
+
+        mockMvc.perform(get("/api/probe").header("Authorization", "Bearer " + expired))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("❌ Sans jeton - 401")
+    void protectedEndpoint_NoToken_Unauthorized() throws Exception {
+        mockMvc.perform(get("/api/probe"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("✅ Métriques - jeton ADMIN, 200")
+    void metrics_AdminToken_Ok() throws Exception {
+        String token = jwtService.generateToken(userId, "admin@example.com", List.of("ADMIN"), 0);
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("❌ Métriques - jeton USER, 403")
+    void metrics_UserToken_Forbidden() throws Exception {
+        String token = jwtService.generateToken(userId, "alice@example.com", List.of("USER"), 0);
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("❌ Métriques - sans jeton, 401")
+    void metrics_NoToken_Unauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,94 @@
+package com.yow.access.config.security.jwt;
+
+import com.yow.access.entities.AppUser;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour le cache des utilisateurs authentifiés
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthenticatedPrincipalCache Tests")
+class AuthenticatedPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AuthenticatedPrincipalCache cache;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedPrincipalCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    private AppUser user(int securityStamp) {
+        AppUser user = new AppUser();
+        user.setId(userId);
+        user.setEnabled(true);
+        user.setSecurityStamp(securityStamp);
+        return user;
+    }
+
+    @Test
+    @DisplayName("✅ Requêtes successives - une seule lecture en base")
+    void get_RepeatedRequests_LoadsOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user(0)));
+
+        cache.get(userId, 0);
+        AppUser user = cache.get(userId, 0);
+
+        assertEquals(userId, user.getId());
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("✅ Jeton plus récent que le cache - rechargement")
+    void get_NewerTokenStamp_Reloads() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user(0)), Optional.of(user(1)));
+
+        cache.get(userId, 0);
+        AppUser user = cache.get(userId, 1);
+
+        assertEquals(1, user.getSecurityStamp());
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("✅ Accès modifié - entrée invalidée")
+    void onUserAccessChanged_EvictsEntry() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user(0)), Optional.of(user(1)));
+
+        cache.get(userId, 0);
+        cache.onUserAccessChanged(new UserAccessChangedEvent(userId));
+        AppUser user = cache.get(userId, 0);
+
+        // Le jeton (stamp 0) ne correspond plus : le filtre le refusera
+        assertEquals(1, user.getSecurityStamp());
+    }
+
+    @Test
+    @DisplayName("❌ Utilisateur inconnu - null, non mis en cache")
+    void get_UnknownUser_ReturnsNull() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertNull(cache.get(userId, 0));
+        assertNull(cache.get(userId, 0));
+        verify(userRepository, times(2)).findById(userId);
+    }
+}
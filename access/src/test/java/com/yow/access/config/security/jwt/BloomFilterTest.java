@@ -0,0 +1,57 @@
+package com.yow.access.config.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour le filtre de Bloom des jetons révoqués
+ */
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("✅ Identifiants ajoutés - toujours retrouvés")
+    void mightContain_AddedIds_NoFalseNegative() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.add(id);
+        }
+
+        ids.forEach(id -> assertTrue(filter.mightContain(id)));
+    }
+
+    @Test
+    @DisplayName("✅ Identifiants absents - faux positifs proches du taux visé")
+    void mightContain_OtherIds_FalsePositiveRateBounded() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        // 1 % visé : large marge pour éviter un test instable
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("✅ Filtre vide - rien n'est révoqué")
+    void mightContain_Empty_False() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+
+        assertFalse(filter.mightContain(UUID.randomUUID()));
+    }
+}
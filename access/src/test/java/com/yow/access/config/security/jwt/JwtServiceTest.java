@@ -0,0 +1,66 @@
+package com.yow.access.config.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour la vérification des jetons JWT
+ */
+@DisplayName("JwtService Tests")
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100);
+
+    @Test
+    @DisplayName("✅ Jeton valide - claims lus en une fois")
+    void verify_ValidToken_ReturnsClaims() {
+        UUID userId = UUID.randomUUID();
+        String token = jwtService.generateToken(userId, "alice@example.com", List.of("ADMIN"), 3);
+
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+
+        assertEquals(userId, verified.userId());
+        assertEquals("alice@example.com", verified.email());
+        assertEquals(List.of("ADMIN"), verified.roles());
+        assertEquals(3, verified.securityStamp());
+        assertNotNull(verified.tokenId());
+    }
+
+    @Test
+    @DisplayName("✅ Même jeton - servi depuis le cache")
+    void verify_SameToken_ReturnsCachedInstance() {
+        String token = jwtService.generateToken(UUID.randomUUID(), "bob@example.com", List.of(), 0);
+
+        Optional<VerifiedToken> first = jwtService.verify(token);
+        Optional<VerifiedToken> second = jwtService.verify(token);
+
+        assertSame(first.orElseThrow(), second.orElseThrow());
+    }
+
+    @Test
+    @DisplayName("❌ Signature altérée - refusé")
+    void verify_TamperedToken_IsEmpty() {
+        String token = jwtService.generateToken(UUID.randomUUID(), "eve@example.com", List.of(), 0);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertFalse(jwtService.isTokenValid("pas-un-jeton"));
+    }
+
+    @Test
+    @DisplayName("❌ Jeton expiré - refusé")
+    void verify_ExpiredToken_IsEmpty() {
+        JwtService expired = new JwtService(SECRET, -1_000, 100);
+        String token = expired.generateToken(UUID.randomUUID(), "old@example.com", List.of(), 0);
+
+        assertTrue(expired.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.yow.access.config.security.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour les seaux à jetons
+ */
+@DisplayName("TokenBucketLimiter Tests")
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(10), 100, clock::get);
+
+    @Test
+    @DisplayName("✅ Rafale autorisée puis refus avec délai")
+    void tryAcquire_BurstThenReject() {
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+
+        assertEquals(10 * SECOND, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    @DisplayName("✅ Un jeton regagné par intervalle")
+    void tryAcquire_RefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        clock.addAndGet(4 * SECOND);
+        assertEquals(6 * SECOND, limiter.tryAcquire("alice"));
+
+        clock.addAndGet(6 * SECOND);
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+
+    @Test
+    @DisplayName("✅ Seaux indépendants par clé")
+    void tryAcquire_KeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    @DisplayName("❌ Refus répétés - ne repoussent pas le délai")
+    void tryAcquire_RejectionsDoNotConsume() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        clock.addAndGet(10 * SECOND);
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+}
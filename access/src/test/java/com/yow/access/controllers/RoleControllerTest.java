@@ -0,0 +1,202 @@
+package com.yow.access.controllers;
+
+import com.yow.access.config.security.Permissions;
+import com.yow.access.config.security.context.AuthenticatedUserContext;
+import com.yow.access.dto.CreateRoleRequest;
+import com.yow.access.entities.Resource;
+import com.yow.access.entities.Role;
+import com.yow.access.events.RoleChangedEvent;
+import com.yow.access.exceptions.AccessDeniedException;
+import com.yow.access.repositories.PermissionRepository;
+import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.repositories.RoleRepository;
+import com.yow.access.services.AuthorizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleControllerTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private AuthenticatedUserContext userContext;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RoleController roleController;
+
+    private UUID userId;
+    private UUID tenantId;
+    private Role customRole;
+    private Resource tenantRoot;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        tenantId = UUID.randomUUID();
+
+        customRole = new Role();
+        customRole.setId((short) 42);
+        customRole.setName("MANAGER");
+        customRole.setScope("TENANT");
+        customRole.setTenantId(tenantId);
+
+        tenantRoot = new Resource();
+        tenantRoot.setId(UUID.randomUUID());
+        tenantRoot.setName("Root");
+
+        lenient().when(userContext.getUserId()).thenReturn(userId);
+    }
+
+    private CreateRoleRequest request(String name) {
+        CreateRoleRequest request = new CreateRoleRequest();
+        request.setName(name);
+        return request;
+    }
+
+    /* ============================
+       TESTS UPDATE ROLE (PUT /api/roles/{roleId})
+       ============================ */
+
+    @Test
+    @DisplayName("Modifier un rôle de son tenant - renommé et bindings invalidés")
+    void updateRole_customRoleOfOwnTenant_shouldRename() {
+        when(roleRepository.findById((short) 42)).thenReturn(Optional.of(customRole));
+        when(resourceRepository.findByTenantIdAndParentIsNull(tenantId)).thenReturn(List.of(tenantRoot));
+        when(roleRepository.findByNameAndTenantIdIsNull("SUPERVISOR")).thenReturn(Optional.empty());
+        when(roleRepository.findByNameAndTenantId("SUPERVISOR", tenantId)).thenReturn(Optional.empty());
+
+        ResponseEntity<Role> response = roleController.updateRole((short) 42, request(" SUPERVISOR "));
+
+        assertThat(response.getBody().getName()).isEqualTo("SUPERVISOR");
+        verify(authorizationService).checkGlobalPermission(userId, Permissions.ROLE_UPDATE);
+        verify(authorizationService).checkPermission(userId, tenantRoot.getId(), Permissions.ROLE_UPDATE);
+        verify(roleRepository).save(customRole);
+        verify(eventPublisher).publishEvent(new RoleChangedEvent((short) 42));
+    }
+
+    @Test
+    @DisplayName("Modifier un rôle sans ROLE_UPDATE - 403")
+    void updateRole_withoutPermission_shouldBeDenied() {
+        doThrow(new AccessDeniedException(Permissions.ROLE_UPDATE))
+                .when(authorizationService).checkGlobalPermission(userId, Permissions.ROLE_UPDATE);
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 42, request("SUPERVISOR")))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(roleRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Renommer un rôle en ADMIN - 403")
+    void updateRole_renameToAdmin_shouldBeDenied() {
+        when(roleRepository.findById((short) 42)).thenReturn(Optional.of(customRole));
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 42, request("admin")))
+                .isInstanceOf(AccessDeniedException.class);
+
+        assertThat(customRole.getName()).isEqualTo("MANAGER");
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Renommer un rôle en TENANT_ADMIN - 403")
+    void updateRole_renameToTenantAdmin_shouldBeDenied() {
+        when(roleRepository.findById((short) 42)).thenReturn(Optional.of(customRole));
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 42, request("TENANT_ADMIN")))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Modifier un rôle système - 403")
+    void updateRole_systemRole_shouldBeDenied() {
+        Role systemRole = new Role();
+        systemRole.setId((short) 2);
+        systemRole.setName("USER");
+        systemRole.setScope("GLOBAL");
+        when(roleRepository.findById((short) 2)).thenReturn(Optional.of(systemRole));
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 2, request("USER_PLUS")))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Modifier un rôle d'un autre tenant - 403")
+    void updateRole_roleOfOtherTenant_shouldBeDenied() {
+        when(roleRepository.findById((short) 42)).thenReturn(Optional.of(customRole));
+        when(resourceRepository.findByTenantIdAndParentIsNull(tenantId)).thenReturn(List.of(tenantRoot));
+        doThrow(new AccessDeniedException(Permissions.ROLE_UPDATE))
+                .when(authorizationService).checkPermission(userId, tenantRoot.getId(), Permissions.ROLE_UPDATE);
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 42, request("SUPERVISOR")))
+                .isInstanceOf(AccessDeniedException.class);
+
+        assertThat(customRole.getName()).isEqualTo("MANAGER");
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Renommer vers un nom déjà pris dans le tenant - refusé")
+    void updateRole_duplicateName_shouldBeRejected() {
+        Role other = new Role();
+        other.setId((short) 43);
+        other.setName("SUPERVISOR");
+        other.setTenantId(tenantId);
+        when(roleRepository.findById((short) 42)).thenReturn(Optional.of(customRole));
+        when(resourceRepository.findByTenantIdAndParentIsNull(tenantId)).thenReturn(List.of(tenantRoot));
+        when(roleRepository.findByNameAndTenantIdIsNull("SUPERVISOR")).thenReturn(Optional.empty());
+        when(roleRepository.findByNameAndTenantId("SUPERVISOR", tenantId)).thenReturn(Optional.of(other));
+
+        assertThatThrownBy(() -> roleController.updateRole((short) 42, request("SUPERVISOR")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Créer un rôle nommé ADMIN - 403")
+    void createRole_reservedName_shouldBeDenied() {
+        CreateRoleRequest request = request("ADMIN");
+        request.setTenantId(tenantId);
+
+        assertThatThrownBy(() -> roleController.createRole(request))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(roleRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,61 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.AuditLogFilter;
+import com.yow.access.services.audit.AuditDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour l'export d'audit en flux
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogExporter Tests")
+class AuditLogExporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditDictionary dictionary;
+
+    @Test
+    @DisplayName("CSV : champs simples tels quels, les autres entre guillemets")
+    void csvField_quotesOnlyWhenNeeded() {
+        assertEquals("LOGIN", AuditLogExporter.csvField("LOGIN"));
+        assertEquals("", AuditLogExporter.csvField(null));
+        assertEquals("\"a,b\"", AuditLogExporter.csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", AuditLogExporter.csvField("say \"hi\""));
+        assertEquals("\"line\nbreak\"", AuditLogExporter.csvField("line\nbreak"));
+    }
+
+    @Test
+    @DisplayName("Export gzip : flux complet et décompressable, en-tête CSV en tête")
+    void export_gzipCsv_isCompleteStream() throws Exception {
+        AuditLogExporter exporter = new AuditLogExporter(jdbcTemplate, JsonMapper.builder().build(), dictionary);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(
+                new AuditLogFilter(null, null, null, null, null, null, null, null),
+                AuditLogExporter.Format.CSV,
+                true,
+                out
+        );
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(String.join(",", AuditLogExporter.COLUMNS) + "\r\n", csv);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.AuditLogEntryResponse;
+import com.yow.access.dto.AuditLogFilter;
+import com.yow.access.dto.AuditLogPage;
+import com.yow.access.exceptions.InvalidCursorException;
+import com.yow.access.services.audit.AuditDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour la lecture paginée (keyset) du journal d'audit
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogQueryService Tests")
+class AuditLogQueryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditDictionary dictionary;
+
+    @InjectMocks
+    private AuditLogQueryService queryService;
+
+    private final UUID tenantId = UUID.randomUUID();
+
+    private static List<AuditLogEntryResponse> entries(int n) {
+        List<AuditLogEntryResponse> rows = new ArrayList<>();
+        Instant now = Instant.parse("2026-01-01T12:00:00.123456Z");
+        for (int i = 0; i < n; i++) {
+            rows.add(new AuditLogEntryResponse(UUID.randomUUID(), "CREATE_RESOURCE",
+                    now.minusSeconds(i), "alice", "FOLDER", "SUCCESS", ""));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("✅ Filtres transmis au SQL, curseur si page pleine")
+    @SuppressWarnings("unchecked")
+    void findPage_AppliesFiltersAndReturnsCursor() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(entries(3));
+
+        AuditLogFilter filter = new AuditLogFilter(tenantId, null, "CREATE_RESOURCE", null, null, null, null, null);
+        AuditLogPage page = queryService.findPage(filter, null, 2);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertTrue(sql.getValue().contains("a.tenant_id = ?"));
+        assertTrue(sql.getValue().contains("a.action_code = ?"));
+        assertFalse(sql.getValue().contains("a.user_id = ?"));
+
+        assertEquals(2, page.items().size());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("✅ Curseur renvoyé = condition keyset (timestamp, id)")
+    @SuppressWarnings("unchecked")
+    void findPage_WithCursor_AddsKeysetCondition() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(entries(3), entries(1));
+
+        AuditLogFilter filter = new AuditLogFilter(tenantId, null, null, null, null, null, null, null);
+        String cursor = queryService.findPage(filter, null, 2).nextCursor();
+        AuditLogPage next = queryService.findPage(filter, cursor, 2);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertTrue(sql.getAllValues().get(1).contains("(a.timestamp, a.id) < (?, ?)"));
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    @DisplayName("✅ Sous-arbre - descendants lus dans la table de fermeture, combinés à la période")
+    @SuppressWarnings("unchecked")
+    void findPage_Subtree_UsesClosureTable() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(entries(1));
+        UUID departmentId = UUID.randomUUID();
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+
+        AuditLogFilter filter = new AuditLogFilter(tenantId, null, null, null, null, from, null, departmentId);
+        queryService.findPage(filter, null, 10);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertTrue(sql.getValue().contains("FROM resource_ancestor ra WHERE ra.ancestor_id = ?"));
+        assertTrue(sql.getValue().contains("a.timestamp >= ?"));
+        assertTrue(List.of(args.getValue()).contains(departmentId));
+    }
+
+    @Test
+    @DisplayName("❌ Curseur invalide")
+    void findPage_InvalidCursor_Throws() {
+        AuditLogFilter filter = new AuditLogFilter(null, null, null, null, null, null, null, null);
+
+        assertThrows(InvalidCursorException.class,
+                () -> queryService.findPage(filter, "pas-un-curseur", 10));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,106 @@
+package com.yow.access.services;
+
+import com.yow.access.config.email.EmailService;
+import com.yow.access.config.security.PasswordHasher;
+import com.yow.access.config.security.jwt.AccessTokenRevocations;
+import com.yow.access.config.security.jwt.JwtService;
+import com.yow.access.dto.AuthResponse;
+import com.yow.access.dto.RegisterTenantRequest;
+import com.yow.access.entities.AppUser;
+import com.yow.access.entities.Role;
+import com.yow.access.entities.UserRoleResource;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de l'inscription d'une organisation (tenant et administrateur)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthService - inscription d'un tenant")
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private UserRoleResourceRepository userRoleResourceRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private AccessTokenRevocations accessTokenRevocations;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @Test
+    @DisplayName("✅ Compte existant admin du nouveau tenant - ses bindings en cache sont invalidés")
+    void registerTenant_ExistingUser_PublishesAccessChange() {
+        AppUser existing = new AppUser();
+        existing.setId(UUID.randomUUID());
+        existing.setEmail("owner@example.com");
+        existing.setPasswordHash("hash");
+        Role tenantAdmin = new Role();
+        tenantAdmin.setName("TENANT_ADMIN");
+
+        RegisterTenantRequest request = new RegisterTenantRequest();
+        request.setEmail("owner@example.com");
+        request.setPassword("secret");
+        request.setOrganizationName("Acme");
+
+        when(userRepository.findByEmail("owner@example.com")).thenReturn(Optional.of(existing));
+        when(userRepository.existsByEmail("owner@example.com")).thenReturn(true);
+        when(passwordHasher.matches("secret", "hash")).thenReturn(true);
+        when(roleRepository.findByName("TENANT_ADMIN")).thenReturn(Optional.of(tenantAdmin));
+        when(jwtService.getExpiration()).thenReturn(Duration.ofMinutes(15));
+
+        AuthResponse response = authService.registerTenant(request);
+
+        assertNotNull(response);
+        InOrder inOrder = inOrder(userRoleResourceRepository, eventPublisher);
+        inOrder.verify(userRoleResourceRepository).save(any(UserRoleResource.class));
+        inOrder.verify(eventPublisher).publishEvent(new UserAccessChangedEvent(existing.getId()));
+    }
+}
@@ -2,14 +2,20 @@ package com.yow.access.services;
 
 import com.yow.access.entities.*;
 import com.yow.access.exceptions.AccessDeniedException;
+import com.yow.access.repositories.PermissionRepository;
 import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.repositories.UserRepository;
 import com.yow.access.repositories.UserRoleResourceRepository;
+import com.yow.access.services.rbac.ResourceTreeIndex;
+import com.yow.access.services.rbac.RoleCatalog;
+import com.yow.access.services.rbac.UserBindingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -34,7 +40,13 @@ class AuthorizationServiceTest {
     @Mock
     private ResourceRepository resourceRepository;
 
-    @InjectMocks
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    private UserBindingCache bindingCache;
     private AuthorizationService authorizationService;
 
     // IDs constants
@@ -124,6 +136,21 @@ class AuthorizationServiceTest {
                 .name("ADMIN_GLOBAL")
                 .permissions(new HashSet<>(Arrays.asList(readPermission, writePermission, deletePermission)))
                 .build();
+
+        // Moteur RBAC réel (catalogue, cache de bindings, index d'arbre) au-dessus des mocks
+        lenient().when(permissionRepository.findAll())
+                .thenReturn(Arrays.asList(readPermission, writePermission, deletePermission));
+        lenient().when(userRepository.findEnabledById(any()))
+                .thenReturn(Optional.of(true));
+
+        RoleCatalog roleCatalog = new RoleCatalog(permissionRepository);
+        bindingCache = new UserBindingCache(
+                urrRepository, userRepository, roleCatalog,
+                new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10)
+        );
+        authorizationService = new AuthorizationService(
+                bindingCache, resourceRepository, roleCatalog, new ResourceTreeIndex(resourceRepository)
+        );
     }
 
     /* ===================================================================
@@ -143,7 +170,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -153,7 +180,7 @@ class AuthorizationServiceTest {
 
             // Assert
             assertTrue(result, "User devrait avoir READ sur rootResource");
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -166,7 +193,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -176,7 +203,7 @@ class AuthorizationServiceTest {
 
             // Assert
             assertFalse(result, "User ne devrait pas avoir WRITE");
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -189,7 +216,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource) // Permission sur parent
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -199,7 +226,7 @@ class AuthorizationServiceTest {
 
             // Assert
             assertTrue(result, "User devrait hériter READ du parent");
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -212,7 +239,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource) // Permission sur grand-parent
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -222,14 +249,14 @@ class AuthorizationServiceTest {
 
             // Assert
             assertTrue(result, "User devrait hériter READ du grand-parent");
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
         @DisplayName("❌ Pas de bindings pour l'utilisateur")
         void hasPermission_NoBindings() {
             // Arrange
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Collections.emptyList());
 
             // Act
@@ -239,7 +266,7 @@ class AuthorizationServiceTest {
 
             // Assert
             assertFalse(result, "User sans bindings ne devrait avoir aucune permission");
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -258,7 +285,7 @@ class AuthorizationServiceTest {
                     .resource(childResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr1, urr2));
 
             // Act
@@ -272,7 +299,7 @@ class AuthorizationServiceTest {
             // Assert
             assertTrue(readResult, "Devrait avoir READ via urr1");
             assertTrue(writeResult, "Devrait avoir WRITE via urr2");
-            verify(urrRepository, times(2)).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId); // Chargé une seule fois (cache)
         }
 
         @Test
@@ -285,7 +312,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -311,7 +338,7 @@ class AuthorizationServiceTest {
 
             // Assert
             assertFalse(result, "Resource null = pas de permission");
-            verify(urrRepository, never()).findAllByUserId(userId); // Pas d'appel
+            verify(urrRepository, never()).findAllByUserIdWithRoleAndResource(userId); // Pas d'appel
         }
 
         @Test
@@ -324,7 +351,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -351,7 +378,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -373,7 +400,7 @@ class AuthorizationServiceTest {
                     .resource(childResource) // Uniquement sur enfant
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -405,7 +432,7 @@ class AuthorizationServiceTest {
                     .resource(childResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(parentUrr, childUrr));
 
             // Act & Assert
@@ -443,7 +470,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert (aucune exception ne doit être lancée)
@@ -452,7 +479,7 @@ class AuthorizationServiceTest {
             });
 
             verify(resourceRepository).findById(resourceId);
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         // Vérifie que userRole n'a PAS WRITE
@@ -478,7 +505,6 @@ class AuthorizationServiceTest {
 
             assertEquals("Resource not found", exception.getMessage());
             verify(resourceRepository).findById(resourceId);
-            verify(urrRepository, never()).findAllByUserId(any());
         }
 
         @Test
@@ -494,7 +520,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource) // Permission sur grand-parent
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -521,7 +547,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -529,7 +555,7 @@ class AuthorizationServiceTest {
                 authorizationService.checkGlobalPermission(userId, "READ");
             });
 
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -543,7 +569,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -558,7 +584,7 @@ class AuthorizationServiceTest {
             assertTrue(exception.getMessage().contains("DELETE"),
                     "Le message devrait mentionner la permission DELETE. Message: " + exception.getMessage());
 
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         // AJOUTE CE TEST POUR VÉRIFIER LES PERMISSIONS DU RÔLE
@@ -589,7 +615,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -604,7 +630,7 @@ class AuthorizationServiceTest {
         @DisplayName("❌ Pas de bindings = aucune permission globale")
         void checkGlobalPermission_NoBindings() {
             // Arrange
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Collections.emptyList());
 
             // Act & Assert
@@ -616,7 +642,7 @@ class AuthorizationServiceTest {
             // Vérifie le message EXACT de ton implémentation
             // Peut être "Permission denied: READ" ou autre
             assertTrue(exception.getMessage().contains("Permission denied"));
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -635,7 +661,7 @@ class AuthorizationServiceTest {
                     .resource(childResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr1, urr2));
 
             // Act & Assert (devrait passer avec les deux rôles)
@@ -664,7 +690,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -685,7 +711,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -723,7 +749,7 @@ class AuthorizationServiceTest {
                     .resource(childResource) // Sur enfant
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr1, urr2));
 
             // Act & Assert
@@ -782,7 +808,7 @@ class AuthorizationServiceTest {
                     .resource(unrelatedResource) // Permission sur ressource non liée
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -829,7 +855,7 @@ class AuthorizationServiceTest {
                     .resource(external) // Permission uniquement sur ressource externe
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert - Vérifie que:
@@ -879,7 +905,7 @@ class AuthorizationServiceTest {
                     .resource(resourceA)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urrOnA));
 
             System.out.println("=== Cas 1: Permission sur A ===");
@@ -905,8 +931,9 @@ class AuthorizationServiceTest {
                     .resource(external)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urrOnExternal));
+            bindingCache.invalidate(userId); // Équivalent de UserAccessChangedEvent
 
             System.out.println("\n=== Cas 2: Permission sur ressource externe ===");
             boolean resultA2 = authorizationService.hasPermission(userId, "READ", resourceA);
@@ -925,13 +952,13 @@ class AuthorizationServiceTest {
         @DisplayName("✅ Gestion des collections vides")
         void handleEmptyCollections() {
             // Arrange - Simule le comportement RÉEL de ton repository
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Collections.emptyList()); // Liste vide, pas null
 
             // Act & Assert (ne devrait pas crasher)
             assertFalse(authorizationService.hasPermission(userId, "READ", rootResource));
 
-            verify(urrRepository).findAllByUserId(userId);
+            verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
         }
 
         @Test
@@ -944,7 +971,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act
@@ -1009,7 +1036,7 @@ class AuthorizationServiceTest {
                     .resource(rootResource) // Même ressource
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr1, urr2));
 
             // Act & Assert
@@ -1035,7 +1062,7 @@ class AuthorizationServiceTest {
                     .resource(orphanResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -1057,10 +1084,10 @@ class AuthorizationServiceTest {
                     .resource(rootResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(differentUserId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(differentUserId))
                     .thenReturn(Arrays.asList(urr));
 
-            when(urrRepository.findAllByUserId(userId)) // Notre user
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId)) // Notre user
                     .thenReturn(Collections.emptyList());
 
             // Act & Assert
@@ -1115,7 +1142,7 @@ class AuthorizationServiceTest {
                     .resource(department)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -1147,10 +1174,10 @@ class AuthorizationServiceTest {
                     .resource(childResource)
                     .build();
 
-            when(urrRepository.findAllByUserId(adminUserId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(adminUserId))
                     .thenReturn(Arrays.asList(adminUrr));
 
-            when(urrRepository.findAllByUserId(normalUserId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(normalUserId))
                     .thenReturn(Arrays.asList(userUrr));
 
             // Act & Assert pour ADMIN
@@ -1205,7 +1232,7 @@ class AuthorizationServiceTest {
                     .resource(level1)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert
@@ -1242,7 +1269,7 @@ class AuthorizationServiceTest {
                     .resource(resource1)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act - Doit terminer normalement (sans StackOverflowError ni boucle infinie)
@@ -1302,7 +1329,7 @@ class AuthorizationServiceTest {
                     .resource(resourceA)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert - Doit terminer normalement
@@ -1330,7 +1357,7 @@ class AuthorizationServiceTest {
                     .resource(selfReferencing)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert - Doit terminer normalement
@@ -1374,7 +1401,7 @@ class AuthorizationServiceTest {
                     .resource(root) // ✅ Permission sur la racine
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act & Assert - Doit terminer normalement même avec une hiérarchie profonde
@@ -1411,7 +1438,7 @@ class AuthorizationServiceTest {
                     .resource(r1)
                     .build();
 
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Arrays.asList(urr));
 
             // Act - Si le code entre en boucle infinie, @Timeout échouera le test
@@ -1426,7 +1453,7 @@ class AuthorizationServiceTest {
         @Test
         @DisplayName("✅ Repository retourne null - géré proprement")
         void repositoryReturnsNull_HandledGracefully() {
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(null);
 
             assertFalse(authorizationService.hasPermission(userId, "READ", rootResource));
@@ -1435,7 +1462,7 @@ class AuthorizationServiceTest {
         @Test
         @DisplayName("✅ Repository retourne liste vide - géré proprement")
         void repositoryReturnsEmptyList_HandledGracefully() {
-            when(urrRepository.findAllByUserId(userId))
+            when(urrRepository.findAllByUserIdWithRoleAndResource(userId))
                     .thenReturn(Collections.emptyList());
 
             assertFalse(authorizationService.hasPermission(userId, "READ", rootResource));
@@ -1448,7 +1475,7 @@ class AuthorizationServiceTest {
             assertFalse(authorizationService.hasPermission(userId, "READ", null));
 
             // Vérifiez que le repository n'est PAS appelé
-            verify(urrRepository, never()).findAllByUserId(userId);
+            verify(urrRepository, never()).findAllByUserIdWithRoleAndResource(userId);
         }
     }
 
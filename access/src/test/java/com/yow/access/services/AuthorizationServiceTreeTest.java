@@ -0,0 +1,255 @@
+package com.yow.access.services;
+
+import com.yow.access.entities.*;
+import com.yow.access.events.ResourceTreeChangedEvent;
+import com.yow.access.exceptions.AccessDeniedException;
+import com.yow.access.repositories.PermissionRepository;
+import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.repositories.UserRepository;
+import com.yow.access.repositories.UserRoleResourceRepository;
+import com.yow.access.services.rbac.ResourceTreeIndex;
+import com.yow.access.services.rbac.RoleCatalog;
+import com.yow.access.services.rbac.UserBindingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du moteur RBAC réel (catalogue, cache de bindings, index d'arbre)
+ * au-dessus des repositories mockés
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthorizationService - index d'arbre")
+class AuthorizationServiceTreeTest {
+
+    @Mock
+    private UserRoleResourceRepository urrRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    private AuthorizationService authorizationService;
+    private ResourceTreeIndex treeIndex;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID tenantId = UUID.randomUUID();
+
+    private Tenant tenant;
+    private Resource root;
+    private Resource child;
+    private Resource grandChild;
+    private Resource sibling;
+    private Role reader;
+
+    @BeforeEach
+    void setUp() {
+        Permission read = new Permission((short) 11, "RESOURCE_READ", null);
+        Permission update = new Permission((short) 12, "RESOURCE_UPDATE", null);
+
+        reader = new Role();
+        reader.setId((short) 4);
+        reader.setName("READER");
+        reader.setPermissions(Set.of(read));
+
+        tenant = new Tenant();
+        tenant.setId(tenantId);
+        tenant.setName("Tenant");
+
+        root = resource("Root", null);
+        child = resource("Child", root);
+        grandChild = resource("GrandChild", child);
+        sibling = resource("Sibling", root);
+
+        lenient().when(permissionRepository.findAll()).thenReturn(Arrays.asList(read, update));
+        lenient().when(userRepository.findEnabledById(userId)).thenReturn(Optional.of(true));
+
+        RoleCatalog roleCatalog = new RoleCatalog(permissionRepository);
+        UserBindingCache bindingCache = new UserBindingCache(
+                urrRepository, userRepository, roleCatalog,
+                new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10)
+        );
+        treeIndex = new ResourceTreeIndex(resourceRepository);
+        authorizationService = new AuthorizationService(
+                bindingCache, resourceRepository, roleCatalog, treeIndex
+        );
+    }
+
+    private Resource resource(String name, Resource parent) {
+        Resource resource = new Resource();
+        resource.setId(UUID.randomUUID());
+        resource.setName(name);
+        resource.setType("FOLDER");
+        resource.setTenant(tenant);
+        resource.setParent(parent);
+        return resource;
+    }
+
+    private void bind(Role role, Resource resource) {
+        AppUser user = new AppUser();
+        user.setId(userId);
+
+        UserRoleResource urr = new UserRoleResource();
+        urr.setUser(user);
+        urr.setRole(role);
+        urr.setResource(resource);
+
+        when(urrRepository.findAllByUserIdWithRoleAndResource(userId)).thenReturn(List.of(urr));
+    }
+
+    // Arêtes (id, parent_id) de l'arbre du tenant
+    private List<Object[]> edges(Resource... resources) {
+        List<Object[]> edges = new ArrayList<>();
+        for (Resource r : resources) {
+            edges.add(new Object[]{r.getId(), r.getParent() != null ? r.getParent().getId() : null});
+        }
+        return edges;
+    }
+
+    @Test
+    @DisplayName("✅ Vérification par id - héritée de la racine, sans charger la ressource")
+    void checkPermission_IndexedResource_NoEntityLoad() {
+        bind(reader, root);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child, grandChild, sibling));
+
+        assertDoesNotThrow(() -> authorizationService.checkPermission(userId, grandChild.getId(), "RESOURCE_READ"));
+        assertDoesNotThrow(() -> authorizationService.checkPermission(userId, sibling.getId(), "RESOURCE_READ"));
+
+        // Arbre chargé une seule fois, aucune entité lue
+        verify(resourceRepository).findTreeEdgesByTenantId(tenantId);
+        verify(resourceRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("❌ Binding sur un enfant - ni le parent ni le frère n'en héritent")
+    void checkPermission_IndexedResource_InheritsDownwardOnly() {
+        bind(reader, child);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child, grandChild, sibling));
+
+        assertDoesNotThrow(() -> authorizationService.checkPermission(userId, grandChild.getId(), "RESOURCE_READ"));
+        assertThrows(AccessDeniedException.class,
+                () -> authorizationService.checkPermission(userId, root.getId(), "RESOURCE_READ"));
+        assertThrows(AccessDeniedException.class,
+                () -> authorizationService.checkPermission(userId, sibling.getId(), "RESOURCE_READ"));
+        assertThrows(AccessDeniedException.class,
+                () -> authorizationService.checkPermission(userId, grandChild.getId(), "RESOURCE_UPDATE"));
+
+        verify(resourceRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("✅ Ressource ajoutée - héritage via le nouvel arbre, bindings gardés en cache")
+    void checkPermission_ResourceAdded_BindingsNotReloaded() {
+        bind(reader, root);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child));
+        assertDoesNotThrow(() -> authorizationService.checkPermission(userId, child.getId(), "RESOURCE_READ"));
+
+        Resource added = resource("Added", child);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child, added));
+        treeIndex.onResourceTreeChanged(new ResourceTreeChangedEvent(tenantId));
+
+        assertDoesNotThrow(() -> authorizationService.checkPermission(userId, added.getId(), "RESOURCE_READ"));
+        verify(urrRepository, times(1)).findAllByUserIdWithRoleAndResource(userId);
+    }
+
+    @Test
+    @DisplayName("✅ Matrice - ressources indexées, sans chargement d'entités")
+    void checkBatch_IndexedResources() {
+        bind(reader, child);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child, grandChild, sibling));
+
+        Map<UUID, Map<String, Boolean>> matrix = authorizationService.checkBatch(
+                userId,
+                List.of(root.getId(), child.getId(), grandChild.getId()),
+                List.of("RESOURCE_READ", "RESOURCE_UPDATE")
+        );
+
+        assertFalse(matrix.get(root.getId()).get("RESOURCE_READ"));
+        assertTrue(matrix.get(child.getId()).get("RESOURCE_READ"));
+        assertTrue(matrix.get(grandChild.getId()).get("RESOURCE_READ")); // Hérité
+        assertFalse(matrix.get(grandChild.getId()).get("RESOURCE_UPDATE"));
+        verify(resourceRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("✅ Matrice - ressources hors index chargées en une requête, ancêtres partagés")
+    void checkBatch_UnindexedResources_OneQuery() {
+        bind(reader, child);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(Collections.emptyList());
+        when(resourceRepository.findAllById(any()))
+                .thenReturn(Arrays.asList(root, child, grandChild));
+
+        Map<UUID, Map<String, Boolean>> matrix = authorizationService.checkBatch(
+                userId,
+                List.of(root.getId(), child.getId(), grandChild.getId()),
+                List.of("RESOURCE_READ", "RESOURCE_UPDATE")
+        );
+
+        assertFalse(matrix.get(root.getId()).get("RESOURCE_READ"));
+        assertTrue(matrix.get(child.getId()).get("RESOURCE_READ"));
+        assertTrue(matrix.get(grandChild.getId()).get("RESOURCE_READ"));
+        assertFalse(matrix.get(grandChild.getId()).get("RESOURCE_UPDATE"));
+        verify(resourceRepository).findAllById(any());
+        verify(urrRepository).findAllByUserIdWithRoleAndResource(userId);
+    }
+
+    @Test
+    @DisplayName("❌ Matrice - ressource inconnue, tout refusé")
+    void checkBatch_UnknownResourceDenied() {
+        bind(reader, root);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(edges(root, child));
+        when(resourceRepository.findAllById(any()))
+                .thenReturn(Collections.emptyList());
+
+        UUID unknownId = UUID.randomUUID();
+        Map<UUID, Map<String, Boolean>> matrix = authorizationService.checkBatch(
+                userId, List.of(unknownId), List.of("RESOURCE_READ")
+        );
+
+        assertEquals(Map.of("RESOURCE_READ", false), matrix.get(unknownId));
+    }
+
+    @Test
+    @DisplayName("❌ Ancêtre supprimé logiquement - ressource introuvable, sans requête")
+    void checkPermission_SoftDeletedAncestor_NotFound() {
+        bind(reader, root);
+        when(resourceRepository.findTreeEdgesByTenantId(tenantId))
+                .thenReturn(Arrays.asList(
+                        new Object[]{root.getId(), null, null},
+                        new Object[]{child.getId(), root.getId(), Instant.now()},
+                        new Object[]{grandChild.getId(), child.getId(), null}
+                ));
+
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> authorizationService.checkPermission(userId, grandChild.getId(), "RESOURCE_READ")
+        );
+
+        assertEquals("Resource not found", exception.getMessage());
+        verify(resourceRepository, never()).findById(any());
+    }
+}
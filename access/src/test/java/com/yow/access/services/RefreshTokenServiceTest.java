@@ -0,0 +1,117 @@
+package com.yow.access.services;
+
+import com.yow.access.entities.AppUser;
+import com.yow.access.entities.RefreshToken;
+import com.yow.access.exceptions.InvalidRefreshTokenException;
+import com.yow.access.repositories.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour la rotation des refresh tokens
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService service;
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(30));
+        user = new AppUser();
+        user.setId(UUID.randomUUID());
+        user.setEnabled(true);
+        user.setSecurityStamp(2);
+    }
+
+    private RefreshToken stored(String rawToken, UUID familyId) {
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setTokenHash(RefreshTokenService.hash(rawToken));
+        token.setSecurityStamp(user.getSecurityStamp());
+        token.setExpiresAt(Instant.now().plus(Duration.ofDays(1)));
+        return token;
+    }
+
+    @Test
+    @DisplayName("✅ Émission - seul le haché est stocké")
+    void issue_StoresHashOnly() {
+        String raw = service.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(RefreshTokenService.hash(raw), saved.getValue().getTokenHash());
+        assertNotEquals(raw, saved.getValue().getTokenHash());
+        assertEquals(2, saved.getValue().getSecurityStamp());
+    }
+
+    @Test
+    @DisplayName("✅ Rotation - ancien révoqué, successeur dans la même famille")
+    void rotate_ValidToken_IssuesSuccessor() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken current = stored("raw-1", familyId);
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("raw-1")))
+                .thenReturn(Optional.of(current));
+
+        RefreshTokenService.Rotation rotation = service.rotate("raw-1");
+
+        assertSame(user, rotation.user());
+        assertNotEquals("raw-1", rotation.refreshToken());
+        assertNotNull(current.getRevokedAt());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(familyId, saved.getValue().getFamilyId());
+    }
+
+    @Test
+    @DisplayName("❌ Jeton déjà utilisé - toute la famille est révoquée")
+    void rotate_ReusedToken_RevokesFamily() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken current = stored("raw-1", familyId);
+        current.setRevokedAt(Instant.now().minusSeconds(5));
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("raw-1"));
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any(Instant.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("❌ Stamp changé (mot de passe réinitialisé) - refusé")
+    void rotate_SecurityStampChanged_Rejected() {
+        RefreshToken current = stored("raw-1", UUID.randomUUID());
+        user.bumpSecurityStamp();
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("raw-1"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("❌ Jeton inconnu - refusé")
+    void rotate_UnknownToken_Rejected() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("nope"));
+    }
+}
@@ -0,0 +1,245 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.ResourceImportResponse;
+import com.yow.access.entities.Resource;
+import com.yow.access.entities.Tenant;
+import com.yow.access.events.ResourceTreeChangedEvent;
+import com.yow.access.exceptions.InvalidImportException;
+import com.yow.access.repositories.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour l'import en masse de ressources
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResourceImportService Tests")
+class ResourceImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ResourceImportService importService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID parentId = UUID.randomUUID();
+
+    private Tenant tenant;
+    private Resource parent;
+
+    @BeforeEach
+    void setUp() {
+        tenant = new Tenant();
+        tenant.setId(tenantId);
+
+        parent = new Resource();
+        parent.setId(parentId);
+        parent.setTenant(tenant);
+        parent.setName("root");
+        parent.setType("FOLDER");
+        parent.setPath("/root");
+
+        lenient().when(resourceRepository.findById(parentId)).thenReturn(Optional.of(parent));
+
+        importService = new ResourceImportService(
+                jdbcTemplate, resourceRepository, authorizationService, auditLogService,
+                eventPublisher, JsonMapper.builder().build()
+        );
+    }
+
+    // Corps JSON sous le parent de test
+    private InputStream json(String nodes) {
+        String body = "{\"parentResourceId\": \"" + parentId + "\", \"nodes\": " + nodes + "}";
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Lignes transmises au premier batchUpdate (INSERT INTO resource)
+    @SuppressWarnings("unchecked")
+    private List<Object> insertedRows() {
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(
+                startsWith("INSERT INTO resource "),
+                rows.capture(),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        );
+        List<Object> all = new ArrayList<>();
+        rows.getAllValues().forEach(all::addAll);
+        return all;
+    }
+
+    @Test
+    @DisplayName("✅ Arbre imbriqué - parents avant enfants, une seule vérification")
+    void importTree_InsertsParentsFirst() {
+        ResourceImportResponse response = importService.importTree(userId, json("""
+                [
+                  {"name": "a", "type": "FOLDER", "children": [{"name": "a1", "type": "DOCUMENT"}]},
+                  {"type": "FOLDER", "name": "b", "children": []}
+                ]
+                """));
+
+        assertEquals(3, response.getImported());
+        assertEquals(1, response.getBatches());
+
+        List<String> rows = insertedRows().stream().map(Object::toString).toList();
+        assertTrue(rows.get(0).contains("path=/root/a]"));
+        assertTrue(rows.get(1).contains("path=/root/a/a1]"));
+        assertTrue(rows.get(2).contains("path=/root/b]"));
+
+        verify(authorizationService, times(1)).checkPermission(userId, parentId, "RESOURCE_CREATE");
+        verify(auditLogService, times(1)).log(eq(tenant), isNull(), eq(parent), eq("BULK_IMPORT_RESOURCES"),
+                any(), any(), eq("SUCCESS"), any(), isNull(), isNull());
+        verify(eventPublisher).publishEvent(any(ResourceTreeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("✅ CSV - références vers des lignes précédentes")
+    void importCsv_ResolvesEarlierRefs() {
+        String csv = """
+                ref,parentRef,name,type
+                1,,"Site, Nord",SITE
+                2,1,Bat A,BUILDING
+                """;
+
+        ResourceImportResponse response = importService.importCsv(userId, parentId, new StringReader(csv));
+
+        assertEquals(2, response.getImported());
+        List<String> rows = insertedRows().stream().map(Object::toString).toList();
+        assertTrue(rows.get(1).contains("path=/root/Site, Nord/Bat A]"));
+    }
+
+    @Test
+    @DisplayName("❌ CSV - parentRef inconnu")
+    void importCsv_UnknownParentRef_Throws() {
+        String csv = """
+                ref,parentRef,name,type
+                1,missing,A,SITE
+                """;
+
+        assertThrows(InvalidImportException.class,
+                () -> importService.importCsv(userId, parentId, new StringReader(csv)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("✅ Découpage en lots de BATCH_SIZE lignes, un audit par lot")
+    void importTree_SplitsIntoBatches() {
+        StringBuilder nodes = new StringBuilder("[");
+        for (int i = 0; i < ResourceImportService.BATCH_SIZE + 1; i++) {
+            nodes.append(i > 0 ? "," : "").append("{\"name\": \"n").append(i).append("\", \"type\": \"FOLDER\"}");
+        }
+
+        ResourceImportResponse response = importService.importTree(userId, json(nodes.append("]").toString()));
+
+        assertEquals(ResourceImportService.BATCH_SIZE + 1, response.getImported());
+        assertEquals(2, response.getBatches());
+        verify(auditLogService, times(2)).log(any(), any(), any(), eq("BULK_IMPORT_RESOURCES"),
+                any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("❌ Nom contenant '/' - refusé comme au renommage")
+    void importCsv_NameWithSlash_Throws() {
+        String csv = """
+                ref,parentRef,name,type
+                1,,a/b,FOLDER
+                """;
+
+        InvalidImportException exception = assertThrows(InvalidImportException.class,
+                () -> importService.importCsv(userId, parentId, new StringReader(csv)));
+        assertEquals("Line 2: name must not contain '/'", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // CSV de count lignes sous le parent par défaut
+    private String csvOf(int count) {
+        StringBuilder csv = new StringBuilder("ref,parentRef,name,type\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(",,n").append(i).append(",FOLDER\n");
+        }
+        return csv.toString();
+    }
+
+    @Test
+    @DisplayName("✅ Exactement MAX_IMPORT_SIZE lignes - acceptées")
+    void importCsv_ExactlyMaxSize_Accepted() {
+        ResourceImportResponse response = importService.importCsv(
+                userId, parentId, new StringReader(csvOf(ResourceImportService.MAX_IMPORT_SIZE)));
+
+        assertEquals(ResourceImportService.MAX_IMPORT_SIZE, response.getImported());
+    }
+
+    @Test
+    @DisplayName("❌ MAX_IMPORT_SIZE + 1 lignes - refusées")
+    void importCsv_OverMaxSize_Throws() {
+        assertThrows(InvalidImportException.class, () -> importService.importCsv(
+                userId, parentId, new StringReader(csvOf(ResourceImportService.MAX_IMPORT_SIZE + 1))));
+    }
+
+    @Test
+    @DisplayName("❌ JSON - enfants avant le nom du nœud, refusé")
+    void importTree_ChildrenBeforeName_Throws() {
+        InvalidImportException exception = assertThrows(InvalidImportException.class,
+                () -> importService.importTree(userId, json("""
+                        [{"type": "FOLDER", "children": [{"name": "a1", "type": "DOCUMENT"}], "name": "a"}]
+                        """)));
+
+        assertEquals("name and type must come before children", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("❌ JSON - nodes avant parentResourceId, refusé sans rien lire")
+    void importTree_NodesBeforeParent_Throws() {
+        String body = "{\"nodes\": [{\"name\": \"a\", \"type\": \"FOLDER\"}], \"parentResourceId\": \"" + parentId + "\"}";
+
+        InvalidImportException exception = assertThrows(InvalidImportException.class,
+                () -> importService.importTree(userId, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals("parentResourceId must come before nodes", exception.getMessage());
+        verifyNoInteractions(resourceRepository, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("❌ JSON mal formé - 400, pas 500")
+    void importTree_MalformedJson_Throws() {
+        assertThrows(InvalidImportException.class,
+                () -> importService.importTree(userId, json("[{\"name\": \"a\", ")));
+    }
+}
@@ -0,0 +1,482 @@
+package com.yow.access.services;
+
+import com.yow.access.dto.ResourceTreeResponse;
+import com.yow.access.entities.*;
+import com.yow.access.exceptions.InvalidCursorException;
+import com.yow.access.exceptions.InvalidHierarchyException;
+import com.yow.access.exceptions.InvalidResourceNameException;
+import com.yow.access.repositories.PermissionRepository;
+import com.yow.access.repositories.ResourceChildView;
+import com.yow.access.repositories.ResourceNodeView;
+import com.yow.access.repositories.ResourceRepository;
+import com.yow.access.services.rbac.CompiledRole;
+import com.yow.access.services.rbac.PermissionScope;
+import com.yow.access.services.rbac.RoleCatalog;
+import com.yow.access.services.rbac.UserBindings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests des lectures et réécritures d'arbre de ResourceService
+ * (entités construites par setters, repositories mockés)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResourceService - arbres")
+class ResourceServiceTreeTest {
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ResourceService resourceService;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    private Tenant tenant;
+    private Resource rootResource;
+    private Resource childResource;
+
+    @BeforeEach
+    void setUp() {
+        tenant = new Tenant();
+        tenant.setId(tenantId);
+        tenant.setCode("TENANT_A");
+        tenant.setName("Tenant A");
+
+        rootResource = resource("Root Resource", "FOLDER", null, "/root");
+        childResource = resource("Child Resource", "DOCUMENT", rootResource, "/root/child");
+    }
+
+    private Resource resource(String name, String type, Resource parent, String path) {
+        Resource resource = new Resource();
+        resource.setId(UUID.randomUUID());
+        resource.setName(name);
+        resource.setType(type);
+        resource.setTenant(tenant);
+        resource.setParent(parent);
+        resource.setPath(path);
+        resource.setCreatedAt(Instant.now());
+        return resource;
+    }
+
+    // Lignes plates telles que renvoyées par les requêtes de sous-arbre
+    private static List<ResourceNodeView> rows(Resource... resources) {
+        List<ResourceNodeView> rows = new ArrayList<>();
+        for (Resource r : resources) {
+            UUID parentId = r.getParent() != null ? r.getParent().getId() : null;
+            rows.add(new ResourceNodeView() {
+                public UUID getId() { return r.getId(); }
+                public UUID getParentId() { return parentId; }
+                public String getName() { return r.getName(); }
+                public String getType() { return r.getType(); }
+            });
+        }
+        return rows;
+    }
+
+    private static ResourceChildView childRow(Resource r, long childCount) {
+        UUID parentId = r.getParent() != null ? r.getParent().getId() : null;
+        return new ResourceChildView() {
+            public UUID getId() { return r.getId(); }
+            public UUID getParentId() { return parentId; }
+            public String getName() { return r.getName(); }
+            public String getType() { return r.getType(); }
+            public Long getChildCount() { return childCount; }
+        };
+    }
+
+    @Test
+    @DisplayName("✅ Arbre annoté - permissions poussées du parent vers l'enfant")
+    void getResourceTree_WithPermissionsAnnotated() {
+        // Arrange
+        Permission read = new Permission((short) 11, "RESOURCE_READ", null);
+        Permission update = new Permission((short) 12, "RESOURCE_UPDATE", null);
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(Arrays.asList(read, update));
+        RoleCatalog catalog = new RoleCatalog(permissionRepository);
+
+        Role reader = new Role();
+        reader.setId((short) 1);
+        reader.setName("READER");
+        reader.setPermissions(Set.of(read));
+
+        Role editor = new Role();
+        editor.setId((short) 2);
+        editor.setName("EDITOR");
+        editor.setPermissions(Set.of(update));
+
+        UserBindings bindings = new UserBindings(
+                userId,
+                new UUID[]{rootResource.getId(), childResource.getId()},
+                new UUID[]{tenantId, tenantId},
+                new CompiledRole[]{catalog.compile(reader), catalog.compile(editor)}
+        );
+        PermissionScope above = PermissionScope.above(
+                bindings, catalog.newBitset(), false, scope -> catalog.names(scope.bits())
+        );
+
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        when(authorizationService.permission("RESOURCE_READ"))
+                .thenReturn(catalog.permission("RESOURCE_READ"));
+        when(authorizationService.scopeAbove(userId, rootResource))
+                .thenReturn(above);
+        when(resourceRepository.findSubtreeNodes(rootResource.getId()))
+                .thenReturn(rows(rootResource, childResource));
+
+        // Act
+        ResourceTreeResponse tree = resourceService.getResourceTree(userId, rootResource.getId(), true);
+
+        // Assert
+        assertEquals(Set.of("RESOURCE_READ"), tree.getPermissions());
+        assertEquals(1, tree.getChildren().size());
+        assertEquals(Set.of("RESOURCE_READ", "RESOURCE_UPDATE"), tree.getChildren().get(0).getPermissions());
+        verify(authorizationService, never()).checkPermission(any(UUID.class), any(UUID.class), anyString());
+    }
+
+    @Test
+    @DisplayName("✅ Sous-arbre chargé en une requête et relié en mémoire")
+    void getResourceTree_OneQuery() {
+        // Arrange
+        Resource grandChild = resource("GrandChild", "DOCUMENT", childResource, "/root/child/grandchild");
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        // Ordre quelconque : le petit-enfant avant son parent
+        when(resourceRepository.findSubtreeNodes(rootResource.getId()))
+                .thenReturn(rows(grandChild, rootResource, childResource));
+
+        // Act
+        ResourceTreeResponse tree = resourceService.getResourceTree(userId, rootResource.getId());
+
+        // Assert
+        assertEquals(rootResource.getId(), tree.getId());
+        assertEquals(1, tree.getChildren().size());
+        ResourceTreeResponse child = tree.getChildren().get(0);
+        assertEquals(childResource.getId(), child.getId());
+        assertEquals(grandChild.getId(), child.getChildren().get(0).getId());
+
+        verify(authorizationService).checkPermission(userId, rootResource.getId(), "RESOURCE_READ");
+        verify(resourceRepository).findSubtreeNodes(rootResource.getId());
+        verify(resourceRepository, never()).findByParentId(any());
+        verify(resourceRepository, never()).findTreeNodesByTenantId(any());
+    }
+
+    @Test
+    @DisplayName("✅ Closure sans ligne pour la racine - repli sur un scan du tenant")
+    void getResourceTree_FallsBackToTenantScan() {
+        // Arrange
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.findSubtreeNodes(rootResource.getId()))
+                .thenReturn(Collections.emptyList());
+        when(resourceRepository.findTreeNodesByTenantId(tenantId))
+                .thenReturn(rows(rootResource, childResource));
+
+        // Act
+        ResourceTreeResponse tree = resourceService.getResourceTree(userId, rootResource.getId());
+
+        // Assert
+        assertEquals(1, tree.getChildren().size());
+        verify(resourceRepository, never()).findByParentId(any());
+    }
+
+    @Test
+    @DisplayName("✅ Racines du tenant - un seul scan, enfants reliés quel que soit l'ordre")
+    void getRootResourcesByTenant_OneScan() {
+        // Arrange
+        Resource otherRoot = resource("Other Root", "FOLDER", null, "/other");
+        when(resourceRepository.findTreeNodesByTenantId(tenantId))
+                .thenReturn(rows(childResource, otherRoot, rootResource));
+
+        // Act
+        List<ResourceTreeResponse> roots = resourceService.getRootResourcesByTenant(tenantId);
+
+        // Assert
+        assertEquals(2, roots.size());
+        ResourceTreeResponse root = roots.stream()
+                .filter(r -> r.getId().equals(rootResource.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, root.getChildren().size());
+        assertEquals(childResource.getId(), root.getChildren().get(0).getId());
+        verify(resourceRepository, never()).findByParentId(any());
+        verify(resourceRepository, never()).findByTenantIdAndParentIsNull(any());
+    }
+
+    @Test
+    @DisplayName("✅ Expansion - deux niveaux, une page par parent, childCount et curseur")
+    void expand_DepthAndLimit() {
+        // Arrange
+        Resource child2 = resource("Child 2", "FOLDER", rootResource, "/root/child2");
+        Resource grandChild = resource("GrandChild", "DOCUMENT", childResource, "/root/child/grandchild");
+        UUID rootId = rootResource.getId();
+
+        when(resourceRepository.findById(rootId))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.countByParentIdAndDeletedAtIsNull(rootId))
+                .thenReturn(2L);
+        // limit = 1 : une ligne de plus pour détecter la page suivante
+        when(resourceRepository.findChildPage(rootId, 2))
+                .thenReturn(Arrays.asList(childRow(childResource, 1), childRow(child2, 0)));
+        when(resourceRepository.findChildPages(Set.of(childResource.getId()), 2))
+                .thenReturn(Arrays.asList(childRow(grandChild, 0)));
+
+        // Act
+        ResourceTreeResponse tree = resourceService.expandResourceTree(userId, rootId, 2, 1, null, false);
+
+        // Assert
+        assertEquals(2L, tree.getChildCount());
+        assertEquals(1, tree.getChildren().size());
+        assertNotNull(tree.getNextCursor(), "Une page suivante existe");
+
+        ResourceTreeResponse child = tree.getChildren().get(0);
+        assertEquals(childResource.getId(), child.getId());
+        assertEquals(1L, child.getChildCount());
+        assertEquals(1, child.getChildren().size());
+        assertNull(child.getNextCursor());
+
+        verify(authorizationService).checkPermission(userId, rootId, "RESOURCE_READ");
+    }
+
+    @Test
+    @DisplayName("✅ Expansion - page suivante depuis le curseur")
+    void expand_FromCursor() {
+        // Arrange
+        Resource child2 = resource("Child 2", "FOLDER", rootResource, "/root/child2");
+        UUID rootId = rootResource.getId();
+
+        when(resourceRepository.findById(rootId))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.countByParentIdAndDeletedAtIsNull(rootId))
+                .thenReturn(2L);
+        when(resourceRepository.findChildPage(rootId, 2))
+                .thenReturn(Arrays.asList(childRow(childResource, 0), childRow(child2, 0)));
+
+        ResourceTreeResponse first = resourceService.expandResourceTree(userId, rootId, 1, 1, null, false);
+
+        when(resourceRepository.findChildPageAfter(rootId, "Child Resource", childResource.getId(), 2))
+                .thenReturn(Arrays.asList(childRow(child2, 0)));
+
+        // Act
+        ResourceTreeResponse next = resourceService.expandResourceTree(
+                userId, rootId, 1, 1, first.getNextCursor(), false);
+
+        // Assert
+        assertEquals(1, next.getChildren().size());
+        assertEquals(child2.getId(), next.getChildren().get(0).getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("❌ Expansion - curseur invalide")
+    void expand_InvalidCursor() {
+        // Arrange
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.countByParentIdAndDeletedAtIsNull(rootResource.getId()))
+                .thenReturn(0L);
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class,
+                () -> resourceService.expandResourceTree(userId, rootResource.getId(), 1, 10, "pas-un-curseur", false));
+    }
+
+    @Test
+    @DisplayName("✅ Déplacement - chemins des descendants réécrits en une instruction")
+    void moveResource_RewritesDescendantPaths() {
+        // Arrange
+        Resource newParent = resource("New Parent", "FOLDER", null, "/newparent");
+        when(resourceRepository.findById(childResource.getId()))
+                .thenReturn(Optional.of(childResource));
+        when(resourceRepository.findById(newParent.getId()))
+                .thenReturn(Optional.of(newParent));
+
+        // Act
+        resourceService.moveResource(userId, childResource.getId(), newParent.getId());
+
+        // Assert - "/root/child/x" devient "/newparent/Child Resource/x"
+        assertEquals(newParent, childResource.getParent());
+        assertEquals("/newparent/Child Resource", childResource.getPath());
+        verify(resourceRepository).rewriteDescendantPaths(
+                childResource.getId(), "/root/child/".length(), "/newparent/Child Resource/");
+        verify(resourceRepository).attachSubtreePaths(childResource.getId(), newParent.getId());
+    }
+
+    @Test
+    @DisplayName("❌ Déplacement sous un descendant - boucle refusée")
+    void moveResource_UnderDescendant_Refused() {
+        // Arrange
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.findById(childResource.getId()))
+                .thenReturn(Optional.of(childResource));
+        // L'enfant est un descendant de la racine (ligne de la closure table)
+        when(resourceRepository.countPath(rootResource.getId(), childResource.getId()))
+                .thenReturn(1L);
+
+        // Act & Assert
+        assertThrows(InvalidHierarchyException.class,
+                () -> resourceService.moveResource(userId, rootResource.getId(), childResource.getId()));
+
+        assertNull(rootResource.getParent());
+        verify(resourceRepository, never()).save(any());
+        verify(resourceRepository, never()).rewriteDescendantPaths(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("❌ Déplacement vers un autre tenant - refusé")
+    void moveResource_ToOtherTenant_Refused() {
+        // Arrange
+        Tenant otherTenant = new Tenant();
+        otherTenant.setId(UUID.randomUUID());
+        Resource foreignParent = resource("Foreign", "FOLDER", null, "/foreign");
+        foreignParent.setTenant(otherTenant);
+
+        when(resourceRepository.findById(childResource.getId()))
+                .thenReturn(Optional.of(childResource));
+        when(resourceRepository.findById(foreignParent.getId()))
+                .thenReturn(Optional.of(foreignParent));
+
+        // Act & Assert
+        assertThrows(InvalidHierarchyException.class,
+                () -> resourceService.moveResource(userId, childResource.getId(), foreignParent.getId()));
+
+        assertEquals(rootResource, childResource.getParent());
+        verify(resourceRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("✅ Renommer - chemin du noeud et des descendants")
+    void renameResource_RewritesPaths() {
+        // Arrange
+        UUID childId = childResource.getId();
+        when(resourceRepository.findById(childId))
+                .thenReturn(Optional.of(childResource));
+
+        // Act
+        resourceService.renameResource(userId, childId, "Renamed");
+
+        // Assert
+        assertEquals("Renamed", childResource.getName());
+        assertEquals("/root/Renamed", childResource.getPath());
+        verify(authorizationService).checkPermission(userId, childId, "RESOURCE_UPDATE");
+        verify(resourceRepository).rewriteDescendantPaths(childId, "/root/child/".length(), "/root/Renamed/");
+        verify(auditLogService).log(
+                eq(tenant), isNull(), eq(childResource), eq("RENAME_RESOURCE"), eq("RESOURCE"),
+                eq(childId), eq("SUCCESS"), eq("Resource renamed"), isNull(), isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("✅ Suppression logique - seule la racine est marquée")
+    void deleteResource_SoftDeletesRoot() {
+        // Arrange
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+
+        // Act
+        resourceService.deleteResource(userId, rootResource.getId());
+
+        // Assert - la purge des descendants suit en arrière-plan
+        assertNotNull(rootResource.getDeletedAt());
+        assertNull(childResource.getDeletedAt());
+        verify(resourceRepository).save(rootResource);
+        verify(resourceRepository, never()).delete(any());
+        verify(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("❌ Ressource déjà supprimée - introuvable")
+    void deleteResource_AlreadyDeleted_NotFound() {
+        // Arrange
+        when(resourceRepository.findById(rootResource.getId()))
+                .thenReturn(Optional.of(rootResource));
+        when(authorizationService.isDeleted(rootResource)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> resourceService.deleteResource(userId, rootResource.getId()));
+
+        verify(authorizationService, never()).checkPermission(any(), any(), anyString());
+        verify(resourceRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("❌ Renommer - nom vide ou contenant '/' refusé")
+    void renameResource_InvalidName_Refused() {
+        // Arrange
+        UUID childId = childResource.getId();
+        when(resourceRepository.findById(childId))
+                .thenReturn(Optional.of(childResource));
+
+        // Act & Assert
+        assertThrows(InvalidResourceNameException.class,
+                () -> resourceService.renameResource(userId, childId, "   "));
+        assertThrows(InvalidResourceNameException.class,
+                () -> resourceService.renameResource(userId, childId, "a/b"));
+
+        assertEquals("Child Resource", childResource.getName());
+        assertEquals("/root/child", childResource.getPath());
+        verify(resourceRepository, never()).save(any());
+        verify(resourceRepository, never()).rewriteDescendantPaths(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("❌ Renommer - nom déjà porté par un frère refusé")
+    void renameResource_DuplicateSibling_Refused() {
+        // Arrange
+        UUID childId = childResource.getId();
+        when(resourceRepository.findById(childId))
+                .thenReturn(Optional.of(childResource));
+        when(resourceRepository.existsByParentIdAndNameAndDeletedAtIsNull(rootResource.getId(), "Taken"))
+                .thenReturn(true);
+
+        // Act & Assert
+        assertThrows(InvalidHierarchyException.class,
+                () -> resourceService.renameResource(userId, childId, " Taken "));
+
+        assertEquals("Child Resource", childResource.getName());
+        verify(resourceRepository, never()).save(any());
+        verify(auditLogService, never()).log(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("❌ Renommer une racine - nom déjà porté par une autre racine du tenant")
+    void renameResource_DuplicateRoot_Refused() {
+        // Arrange
+        UUID rootId = rootResource.getId();
+        when(resourceRepository.findById(rootId))
+                .thenReturn(Optional.of(rootResource));
+        when(resourceRepository.existsByTenantIdAndParentIsNullAndNameAndDeletedAtIsNull(tenantId, "Other Root"))
+                .thenReturn(true);
+
+        // Act & Assert
+        assertThrows(InvalidHierarchyException.class,
+                () -> resourceService.renameResource(userId, rootId, "Other Root"));
+
+        verify(resourceRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.yow.access.services;
+
+import com.yow.access.entities.AppUser;
+import com.yow.access.entities.Role;
+import com.yow.access.entities.UserRoleResource;
+import com.yow.access.events.UserAccessChangedEvent;
+import com.yow.access.repositories.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la création de tenant par un utilisateur connecté
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TenantService - création")
+class TenantServiceCreateTest {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private UserRoleResourceRepository urrRepository;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TenantService tenantService;
+
+    @Test
+    @DisplayName("✅ Créateur admin du nouveau tenant - ses bindings en cache sont invalidés")
+    void createTenant_PublishesCreatorAccessChange() {
+        AppUser creator = new AppUser();
+        creator.setId(UUID.randomUUID());
+        Role tenantAdmin = new Role();
+        tenantAdmin.setName("TENANT_ADMIN");
+        when(userRepository.findById(creator.getId())).thenReturn(Optional.of(creator));
+        when(roleRepository.findByName("TENANT_ADMIN")).thenReturn(Optional.of(tenantAdmin));
+
+        tenantService.createTenant("New Tenant", "NEW_TENANT", creator.getId());
+
+        InOrder inOrder = inOrder(urrRepository, eventPublisher);
+        inOrder.verify(urrRepository).save(any(UserRoleResource.class));
+        inOrder.verify(eventPublisher).publishEvent(new UserAccessChangedEvent(creator.getId()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.yow.access.services;
 
+import com.yow.access.config.security.PasswordHasher;
 import com.yow.access.entities.*;
 import com.yow.access.exceptions.AccessDeniedException;
 import com.yow.access.repositories.*;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -39,6 +41,12 @@ class UserServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
     @InjectMocks
     private UserService userService;
 
@@ -107,10 +115,11 @@ class UserServiceTest {
         newUser.setEnabled(true);
         newUser.setCreatedAt(Instant.now());
 
+        when(passwordHasher.encode("rawPass")).thenReturn("hashedPass");
         when(userRepository.save(any(AppUser.class))).thenReturn(newUser);
 
         // When
-        AppUser result = userService.createUser("newuser", "new@example.com", "hashedPass");
+        AppUser result = userService.createUser("newuser", "new@example.com", "rawPass");
 
         // Then
         assertThat(result).isNotNull();
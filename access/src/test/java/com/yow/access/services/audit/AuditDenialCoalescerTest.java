@@ -0,0 +1,97 @@
+package com.yow.access.services.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour la fusion des refus répétés
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditDenialCoalescer Tests")
+class AuditDenialCoalescerTest {
+
+    @Mock
+    private AuditLogWriter writer;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID resourceId = UUID.randomUUID();
+
+    private AuditDenialCoalescer coalescer(Duration window, int maxKeys) {
+        return new AuditDenialCoalescer(writer, new SimpleMeterRegistry(), window, maxKeys);
+    }
+
+    private AuditRecord denial(Instant at) {
+        return new AuditRecord(UUID.randomUUID(), tenantId, userId, resourceId, "ASSIGN_ROLE",
+                "USER_ROLE_RESOURCE", resourceId, "FAILURE", "Access denied", null, null, at);
+    }
+
+    @Test
+    @DisplayName("✅ Première occurrence écrite immédiatement, les suivantes fusionnées")
+    void submit_RepeatedDenials_WritesFirstThenOneSummary() {
+        AuditDenialCoalescer coalescer = coalescer(Duration.ofMinutes(1), 100);
+        Instant t0 = Instant.parse("2026-05-01T10:00:00Z");
+
+        for (int i = 0; i < 5; i++) {
+            coalescer.submit(denial(t0.plusSeconds(i)));
+        }
+        verify(writer, times(1)).write(any(), eq(AuditMode.FIRE_AND_FORGET));
+
+        coalescer.closeAll();
+
+        ArgumentCaptor<AuditRecord> summary = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(writer).write(summary.capture(), eq(AuditMode.DURABLE));
+        assertEquals(4, summary.getValue().occurrences());
+        assertEquals(t0.plusSeconds(1), summary.getValue().timestamp());
+        assertEquals(t0.plusSeconds(4), summary.getValue().lastTimestamp());
+        assertEquals(0, coalescer.openWindows());
+    }
+
+    @Test
+    @DisplayName("✅ Fenêtre échue - le refus suivant est une nouvelle première occurrence")
+    void submit_AfterWindow_WritesImmediatelyAgain() {
+        AuditDenialCoalescer coalescer = coalescer(Duration.ZERO, 100);
+
+        coalescer.submit(denial(Instant.now()));
+        coalescer.submit(denial(Instant.now()));
+
+        verify(writer, times(2)).write(any(), eq(AuditMode.FIRE_AND_FORGET));
+    }
+
+    @Test
+    @DisplayName("✅ Fenêtre sans répétition - aucune ligne de synthèse")
+    void sweep_WithoutRepeats_WritesNothingMore() {
+        AuditDenialCoalescer coalescer = coalescer(Duration.ZERO, 100);
+
+        coalescer.submit(denial(Instant.now()));
+        coalescer.sweep();
+
+        verify(writer, times(1)).write(any(), any());
+        assertEquals(0, coalescer.openWindows());
+    }
+
+    @Test
+    @DisplayName("❌ Trop de fenêtres ouvertes - écriture directe, mémoire bornée")
+    void submit_MaxKeysReached_WritesEachDenial() {
+        AuditDenialCoalescer coalescer = coalescer(Duration.ofMinutes(1), 0);
+
+        coalescer.submit(denial(Instant.now()));
+        coalescer.submit(denial(Instant.now()));
+
+        verify(writer, times(2)).write(any(), eq(AuditMode.FIRE_AND_FORGET));
+        assertEquals(0, coalescer.openWindows());
+    }
+}
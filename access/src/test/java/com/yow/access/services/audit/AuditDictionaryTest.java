@@ -0,0 +1,80 @@
+package com.yow.access.services.audit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour le dictionnaire des colonnes d'audit
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditDictionary Tests")
+class AuditDictionaryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private AuditDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new AuditDictionary(jdbcTemplate, transactionManager, 100);
+    }
+
+    private void givenStoredCode(short code, String name) throws Exception {
+        when(resultSet.getShort("code")).thenReturn(code);
+        when(resultSet.getString("name")).thenReturn(name);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT code, name FROM audit_code"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("✅ Code connu - une seule lecture, ensuite servi depuis la mémoire")
+    void encode_KnownName_ReadsTableOnce() throws Exception {
+        givenStoredCode((short) 7, "ASSIGN_ROLE");
+
+        assertEquals((short) 7, dictionary.encode(AuditDictionary.Kind.ACTION, "ASSIGN_ROLE"));
+        assertEquals((short) 7, dictionary.encode(AuditDictionary.Kind.ACTION, "ASSIGN_ROLE"));
+        assertEquals("ASSIGN_ROLE", dictionary.decode(AuditDictionary.Kind.ACTION, (short) 7));
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("✅ Valeur nulle - aucun code, aucun accès base")
+    void encode_Null_StaysNull() {
+        assertNull(dictionary.encode(AuditDictionary.Kind.TARGET_TYPE, null));
+        assertNull(dictionary.encodeUserAgent(null));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("✅ Nom jamais enregistré - find renvoie null sans créer de code")
+    void find_UnknownName_DoesNotInsert() {
+        assertNull(dictionary.find(AuditDictionary.Kind.OUTCOME, "MAYBE"));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
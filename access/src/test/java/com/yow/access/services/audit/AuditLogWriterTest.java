@@ -0,0 +1,136 @@
+package com.yow.access.services.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour l'écrivain d'audit par lots
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogWriter Tests")
+class AuditLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AuditRollups rollups;
+
+    @Mock
+    private AuditDictionary dictionary;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AuditLogWriter writer(int capacity, int batchSize) {
+        return new AuditLogWriter(
+                jdbcTemplate, entityManager, rollups, dictionary, meterRegistry,
+                capacity, batchSize, Duration.ofMillis(50), Duration.ZERO
+        );
+    }
+
+    private static AuditRecord record(String action) {
+        return new AuditRecord(UUID.randomUUID(), UUID.randomUUID(), null, null, action,
+                "RESOURCE", UUID.randomUUID(), "SUCCESS", "msg", null, null, Instant.now());
+    }
+
+    @Test
+    @DisplayName("✅ Durable hors transaction - insert immédiat")
+    void durable_WithoutTransaction_WritesNow() {
+        writer(10, 10).write(record("CREATE_RESOURCE"), AuditMode.DURABLE);
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO audit_log"), any(Object[].class));
+        verify(rollups).record(anyList());
+    }
+
+    @Test
+    @DisplayName("✅ Insert multi-lignes découpé à batch-size")
+    void insert_SplitsIntoMultiRowStatements() {
+        writer(10, 2).insert(List.of(record("A"), record("B"), record("C")));
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        assertEquals(3.0, meterRegistry.counter("audit.writer.written").count());
+    }
+
+    @Test
+    @DisplayName("❌ Tampon plein - entrée abandonnée et comptée")
+    void fireAndForget_FullBuffer_DropsAndCounts() {
+        AuditLogWriter writer = writer(2, 10); // Non démarré : personne ne vide le tampon
+
+        writer.write(record("A"), AuditMode.FIRE_AND_FORGET);
+        writer.write(record("B"), AuditMode.FIRE_AND_FORGET);
+        writer.write(record("C"), AuditMode.FIRE_AND_FORGET);
+
+        assertEquals(1.0, meterRegistry.counter("audit.writer.dropped").count());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("✅ Arrêt - le tampon est vidé avant de rendre la main")
+    void stop_FlushesPendingEntries() {
+        AuditLogWriter writer = writer(10, 10);
+        writer.start();
+        writer.write(record("A"), AuditMode.FIRE_AND_FORGET);
+        writer.write(record("B"), AuditMode.FIRE_AND_FORGET);
+
+        writer.stop();
+
+        verify(jdbcTemplate, atLeastOnce()).update(startsWith("INSERT INTO audit_log"), any(Object[].class));
+        assertEquals(2.0, meterRegistry.counter("audit.writer.written").count());
+    }
+
+    @Test
+    @DisplayName("✅ Phase - arrêté après l'arrêt gracieux du serveur web")
+    void phase_StopsAfterWebServer() {
+        assertTrue(writer(10, 10).getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    @Test
+    @DisplayName("❌ Lot rejeté - reprise ligne par ligne, seule la ligne fautive est perdue")
+    void flush_FailedBatch_RetriesRowByRow() {
+        AuditRecord bad = record("BAD");
+        List<AuditRecord> batch = List.of(record("A"), bad, record("C"));
+
+        // Une ligne invalide fait échouer toute l'instruction qui la contient
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = (Object[]) invocation.getRawArguments()[1];
+            if (Arrays.asList(args).contains(bad.id())) {
+                throw new DataIntegrityViolationException("fk violation");
+            }
+            return args.length / 14;
+        });
+
+        writer(10, 10).flush(batch);
+
+        verify(jdbcTemplate, times(4)).update(anyString(), any(Object[].class)); // 1 lot + 3 lignes
+        assertEquals(2.0, meterRegistry.counter("audit.writer.written").count());
+        assertEquals(1.0, meterRegistry.counter("audit.writer.failed").count());
+        verify(rollups).record(argThat(rows -> rows.size() == 2 && !rows.contains(bad)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.yow.access.services.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour le calendrier des partitions mensuelles d'audit
+ */
+@DisplayName("AuditPartitionMaintenance Tests")
+class AuditPartitionMaintenanceTest {
+
+    @Test
+    @DisplayName("Nom de partition : audit_log_pYYYYMM")
+    void partitionName_usesYearAndMonth() {
+        assertEquals("audit_log_p202603", AuditPartitionMaintenance.partitionName(YearMonth.of(2026, 3)));
+    }
+
+    @Test
+    @DisplayName("Rétention : le mois courant et les N précédents sont conservés")
+    void oldestKept_countsWholeMonths() {
+        assertEquals(YearMonth.of(2025, 9), AuditPartitionMaintenance.oldestKept(YearMonth.of(2026, 10), 13));
+    }
+
+    @Test
+    @DisplayName("Seules les partitions mensuelles antérieures à l'horizon expirent")
+    void expiredPartitions_keepsDefaultAndRecentMonths() {
+        List<String> partitions = List.of(
+                "audit_log_p202509",
+                "audit_log_default",
+                "audit_log_p202507",
+                "audit_log_p202508",
+                "audit_log_p202610"
+        );
+
+        List<String> expired = AuditPartitionMaintenance.expiredPartitions(partitions, YearMonth.of(2025, 9));
+
+        assertEquals(List.of("audit_log_p202507", "audit_log_p202508"), expired);
+    }
+
+    @Test
+    @DisplayName("Un mois en échec n'empêche pas la création des suivants")
+    void createAhead_FailedMonth_ContinuesWithNextMonths() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doThrow(new DataIntegrityViolationException("rows in default partition"))
+                .when(jdbcTemplate).execute(contains("audit_log_p202611 "));
+        AuditPartitionMaintenance maintenance = new AuditPartitionMaintenance(
+                jdbcTemplate, 2, 13, AuditPartitionMaintenance.ExpiredAction.DETACH);
+
+        assertDoesNotThrow(() -> maintenance.createAhead(YearMonth.of(2026, 10)));
+
+        verify(jdbcTemplate).execute(contains("audit_log_p202610 "));
+        verify(jdbcTemplate).execute(contains("audit_log_p202612 "));
+    }
+
+    @Test
+    @DisplayName("Partition détachée : ses clés étrangères sont supprimées")
+    void applyRetention_Detach_DropsForeignKeys() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("audit_log_p202507", "audit_log_p202610"));
+        AuditPartitionMaintenance maintenance = new AuditPartitionMaintenance(
+                jdbcTemplate, 3, 13, AuditPartitionMaintenance.ExpiredAction.DETACH);
+
+        maintenance.applyRetention(YearMonth.of(2026, 10));
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p202507");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_log_p202507 DROP CONSTRAINT IF EXISTS fk_audit_resource");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_log_p202507 DROP CONSTRAINT IF EXISTS fk_audit_user");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_log_p202507 DROP CONSTRAINT IF EXISTS fk_audit_tenant");
+        verify(jdbcTemplate, never()).execute(contains("audit_log_p202610"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.yow.access.services.audit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour les agrégats incrémentaux du journal d'audit
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditRollups Tests")
+class AuditRollupsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuditRollups rollups;
+    private final UUID tenantId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        rollups = new AuditRollups(jdbcTemplate, transactionManager);
+    }
+
+    private AuditRecord record(String action, Instant timestamp) {
+        return new AuditRecord(UUID.randomUUID(), tenantId, null, null, action,
+                "RESOURCE", UUID.randomUUID(), "SUCCESS", "msg", null, null, timestamp);
+    }
+
+    @Test
+    @DisplayName("✅ Même heure, même action - une seule ligne upsertée avec le total")
+    void flush_SumsRowsOfTheSameBucket() {
+        Instant now = Instant.parse("2026-03-10T14:05:00Z");
+        rollups.record(List.of(record("LOGIN", now), record("LOGIN", now.plusSeconds(60))));
+        rollups.record(List.of(record("LOGIN", now.plusSeconds(120))));
+
+        rollups.flush();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO audit_rollup_hourly"), args.capture());
+        assertEquals(5, args.getValue().length); // Une seule ligne
+        assertEquals(3L, args.getValue()[4]);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO audit_rollup_daily"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("✅ Rien en attente - aucune écriture")
+    void flush_Empty_DoesNothing() {
+        rollups.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("❌ Échec d'écriture - les deltas sont conservés pour le passage suivant")
+    void flush_Failure_KeepsDeltas() {
+        rollups.record(List.of(record("LOGIN", Instant.now())));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        rollups.flush();
+        rollups.flush();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO audit_rollup_hourly"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("✅ Entrée sans tenant - rangée sous l'UUID nul")
+    void hourKey_WithoutTenant_UsesNilUuid() {
+        AuditRecord system = new AuditRecord(UUID.randomUUID(), null, null, null, "STARTUP",
+                null, null, "SUCCESS", null, null, null, Instant.now());
+
+        assertEquals(AuditRollups.NO_TENANT, AuditRollups.hourKey(system).tenantId());
+    }
+}
@@ -0,0 +1,77 @@
+package com.yow.access.services.rbac;
+
+import com.yow.access.entities.Permission;
+import com.yow.access.entities.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour la compilation des rôles en bitsets
+ */
+@DisplayName("CompiledRole Tests")
+class CompiledRoleTest {
+
+    private static Role role(short id, String name, Permission... permissions) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        role.setPermissions(Set.of(permissions));
+        return role;
+    }
+
+    @Test
+    @DisplayName("✅ Le rôle compilé contient exactement ses permissions")
+    void compile_MatchesOwnPermissions() {
+        Permission read = new Permission((short) 11, "RESOURCE_READ", null);
+        Permission assign = new Permission((short) 20, "ASSIGN_ROLE", null);
+        Permission delete = new Permission((short) 13, "RESOURCE_DELETE", null);
+
+        CompiledRole compiled = CompiledRole.compile(role((short) 5, "MANAGER", read, assign), 1);
+
+        assertTrue(compiled.has(PermissionHandle.of("RESOURCE_READ", read.getId())));
+        assertTrue(compiled.has(PermissionHandle.of("ASSIGN_ROLE", assign.getId())));
+        assertFalse(compiled.has(PermissionHandle.of("RESOURCE_DELETE", delete.getId())));
+        assertFalse(compiled.isAdmin());
+        assertFalse(compiled.isTenantAdmin());
+    }
+
+    @Test
+    @DisplayName("✅ Les ids au-delà de 63 élargissent le bitset")
+    void compile_GrowsForLargeIds() {
+        Permission far = new Permission((short) 130, "FAR", null);
+
+        CompiledRole compiled = CompiledRole.compile(role((short) 6, "WIDE", far), 1);
+
+        assertEquals(3, compiled.width());
+        assertTrue(compiled.has(PermissionHandle.of("FAR", far.getId())));
+        assertFalse(compiled.has(PermissionHandle.of("NEAR", (short) 2)));
+    }
+
+    @Test
+    @DisplayName("❌ Une permission non résolue ne matche jamais")
+    void unresolvedHandle_NeverMatches() {
+        Permission read = new Permission((short) 0, "RESOURCE_READ", null);
+        CompiledRole compiled = CompiledRole.compile(role((short) 1, "ADMIN", read), 1);
+
+        assertFalse(compiled.has(PermissionHandle.unresolved("UNKNOWN")));
+        assertTrue(compiled.isAdmin());
+    }
+
+    @Test
+    @DisplayName("✅ orInto agrège les permissions de plusieurs rôles")
+    void orInto_Aggregates() {
+        Permission read = new Permission((short) 11, "RESOURCE_READ", null);
+        Permission move = new Permission((short) 14, "RESOURCE_MOVE", null);
+        long[] granted = new long[1];
+
+        CompiledRole.compile(role((short) 7, "A", read), 1).orInto(granted);
+        CompiledRole.compile(role((short) 8, "B", move), 1).orInto(granted);
+
+        assertTrue(PermissionHandle.of("RESOURCE_READ", read.getId()).matches(granted));
+        assertTrue(PermissionHandle.of("RESOURCE_MOVE", move.getId()).matches(granted));
+    }
+}
@@ -0,0 +1,122 @@
+package com.yow.access.services.rbac;
+
+import com.yow.access.entities.Permission;
+import com.yow.access.entities.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests pour l'encodage Euler-tour de l'arbre d'un tenant
+ */
+@DisplayName("TenantTree Tests")
+class TenantTreeTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID root = UUID.randomUUID();
+    private final UUID child = UUID.randomUUID();
+    private final UUID grandChild = UUID.randomUUID();
+    private final UUID sibling = UUID.randomUUID();
+
+    private List<Object[]> edges() {
+        List<Object[]> edges = new ArrayList<>();
+        // Ordre quelconque : l'enfant avant son parent
+        edges.add(new Object[]{grandChild, child});
+        edges.add(new Object[]{child, root});
+        edges.add(new Object[]{root, null});
+        edges.add(new Object[]{sibling, root});
+        return edges;
+    }
+
+    @Test
+    @DisplayName("✅ Ancêtre = intervalle [pre, post] englobant")
+    void isAncestor_FollowsHierarchy() {
+        TenantTree tree = TenantTree.build(tenantId, edges());
+
+        int r = tree.indexOf(root);
+        int c = tree.indexOf(child);
+        int g = tree.indexOf(grandChild);
+        int s = tree.indexOf(sibling);
+
+        assertTrue(tree.isAncestor(r, g));
+        assertTrue(tree.isAncestor(c, g));
+        assertTrue(tree.isAncestor(g, g), "Un noeud est son propre ancêtre");
+        assertFalse(tree.isAncestor(g, c));
+        assertFalse(tree.isAncestor(s, g));
+        assertFalse(tree.isAncestor(c, s));
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    @DisplayName("✅ Boucle corrompue - noeuds exclus de l'index")
+    void cycle_IsLeftOutOfIndex() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        List<Object[]> edges = edges();
+        edges.add(new Object[]{a, b});
+        edges.add(new Object[]{b, a});
+
+        TenantTree tree = TenantTree.build(tenantId, edges);
+
+        assertEquals(-1, tree.indexOf(a));
+        assertEquals(-1, tree.indexOf(b));
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    @DisplayName("✅ Suppression logique - sous-arbre hors index et marqué supprimé")
+    void softDeletedSubtree_IsHidden() {
+        List<Object[]> edges = new ArrayList<>();
+        edges.add(new Object[]{root, null, null});
+        edges.add(new Object[]{child, root, Instant.now()});
+        edges.add(new Object[]{grandChild, child, null});
+        edges.add(new Object[]{sibling, root, null});
+
+        TenantTree tree = TenantTree.build(tenantId, edges);
+
+        assertEquals(-1, tree.indexOf(child));
+        assertEquals(-1, tree.indexOf(grandChild));
+        assertTrue(tree.isDeleted(child));
+        assertTrue(tree.isDeleted(grandChild), "Descendant d'une ressource supprimée");
+        assertFalse(tree.isDeleted(sibling));
+        assertFalse(tree.isDeleted(UUID.randomUUID()), "Inconnue != supprimée");
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    @DisplayName("✅ Intervalles de grants - héritage vers le bas uniquement")
+    void grantIntervals_InheritDownwardOnly() {
+        TenantTree tree = TenantTree.build(tenantId, edges());
+        CompiledRole reader = CompiledRole.compile(role((short) 1, "READER", (short) 11), 1);
+        PermissionHandle read = PermissionHandle.of("RESOURCE_READ", (short) 11);
+
+        UserBindings bindings = new UserBindings(
+                UUID.randomUUID(),
+                new UUID[]{child},
+                new UUID[]{tenantId},
+                new CompiledRole[]{reader}
+        );
+        GrantIntervals intervals = bindings.intervals(tree);
+
+        assertTrue(intervals.grants(tree.indexOf(child), read));
+        assertTrue(intervals.grants(tree.indexOf(grandChild), read));
+        assertFalse(intervals.grants(tree.indexOf(root), read));
+        assertFalse(intervals.grants(tree.indexOf(sibling), read));
+        assertSame(intervals, bindings.intervals(tree), "Mémoïsé tant que l'arbre ne change pas");
+    }
+
+    private static Role role(short id, String name, short permissionId) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        role.setPermissions(Set.of(new Permission(permissionId, name + "_P", null)));
+        return role;
+    }
+}
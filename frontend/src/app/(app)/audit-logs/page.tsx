@@ -22,6 +22,9 @@ export default function AuditLogsPage() {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [searchTerm, setSearchTerm] = useState('');
+    // Curseur de la page suivante (en-tête X-Next-Cursor), null sur la dernière page
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
 
     useEffect(() => {
         fetchLogs();
@@ -33,6 +36,7 @@ export default function AuditLogsPage() {
             setError(null);
             const response = await api.get<AuditLog[]>('/api/audit-logs');
             setLogs(response.data);
+            setNextCursor(response.headers['x-next-cursor'] ?? null);
         } catch (err: any) {
             console.error('Erreur chargement logs:', err);
             setError(err.message || 'Erreur lors du chargement des logs');
@@ -41,6 +45,23 @@ export default function AuditLogsPage() {
         }
     }
 
+    async function fetchMoreLogs() {
+        if (!nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const response = await api.get<AuditLog[]>('/api/audit-logs', {
+                params: { after: nextCursor },
+            });
+            setLogs(previous => [...previous, ...response.data]);
+            setNextCursor(response.headers['x-next-cursor'] ?? null);
+        } catch (err: any) {
+            console.error('Erreur chargement logs:', err);
+            setError(err.message || 'Erreur lors du chargement des logs');
+        } finally {
+            setLoadingMore(false);
+        }
+    }
+
     const filteredLogs = logs.filter(log =>
         log.action.toLowerCase().includes(searchTerm.toLowerCase()) ||
         log.username.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -134,6 +155,14 @@ export default function AuditLogsPage() {
                             </TableBody>
                         </Table>
                     )}
+                    {!loading && !error && nextCursor && (
+                        <div className="flex justify-center pt-6">
+                            <Button variant="outline" onClick={fetchMoreLogs} disabled={loadingMore}>
+                                {loadingMore && <Loader2 className="h-4 w-4 mr-2 animate-spin" />}
+                                Charger plus
+                            </Button>
+                        </div>
+                    )}
                 </CardContent>
             </Card>
         </div>
@@ -10,6 +10,7 @@ import { Label } from '@/components/ui/label';
 import { Tabs, TabsContent, TabsList, TabsTrigger } from '@/components/ui/tabs';
 import { Building2, Lock, Mail, User, Loader2, CheckCircle2, ShieldCheck, ArrowRight } from 'lucide-react';
 import { api } from '@/services/api';
+import { storeTokens } from '@/lib/auth-utils';
 import { Alert, AlertDescription } from '@/components/ui/alert';
 
 export default function LoginPage() {
@@ -40,10 +41,10 @@ export default function LoginPage() {
                 password: loginPassword,
             });
 
-            const { token, userId, email, username, roles } = response.data;
+            const { token, refreshToken, userId, email, username, roles } = response.data;
 
             // Stockage local
-            localStorage.setItem('access_token', token);
+            storeTokens(token, refreshToken);
             localStorage.setItem('user_id', userId);
             localStorage.setItem('user_email', email);
             localStorage.setItem('user_name', username);
@@ -82,10 +83,10 @@ export default function LoginPage() {
                 organizationName: orgName,
             });
 
-            const { token, userId, email, username, roles } = response.data;
+            const { token, refreshToken, userId, email, username, roles } = response.data;
 
             // Stockage local
-            localStorage.setItem('access_token', token);
+            storeTokens(token, refreshToken);
             localStorage.setItem('user_id', userId);
             localStorage.setItem('user_email', email);
             localStorage.setItem('user_name', username);
@@ -10,6 +10,7 @@ import { Label } from '@/components/ui/label';
 import { Alert, AlertDescription } from '@/components/ui/alert';
 import { User, Mail, Lock, Loader2, ArrowLeft, CheckCircle2, ShieldCheck } from 'lucide-react';
 import { api } from '@/services/api';
+import { storeTokens } from '@/lib/auth-utils';
 
 export default function RegisterPage() {
     const router = useRouter();
@@ -47,10 +48,10 @@ export default function RegisterPage() {
                 password: formData.password
             });
 
-            const { token, userId, email, username, roles } = response.data;
+            const { token, refreshToken, userId, email, username, roles } = response.data;
 
             // Stockage local
-            localStorage.setItem('access_token', token);
+            storeTokens(token, refreshToken);
             localStorage.setItem('user_id', userId);
             localStorage.setItem('user_email', email);
             localStorage.setItem('user_name', username);
@@ -4,6 +4,8 @@ import { useState, useEffect } from 'react';
 import { usePathname } from 'next/navigation';
 import { Home, Users, Shield, Settings, LogOut, Building2, Activity } from 'lucide-react';
 import Link from 'next/link';
+import { api } from '@/services/api';
+import { clearAuth, getRefreshToken } from '@/lib/auth-utils';
 
 export default function Sidebar() {
   const pathname = usePathname();
@@ -133,7 +135,10 @@ export default function Sidebar() {
 
       <div className="border-t border-gray-700 pt-4">
         <button
-          onClick={() => {
+          onClick={async () => {
+            // Révoque le token d'accès et le refresh token côté serveur ; on sort même en cas d'échec
+            await api.post('/api/auth/logout', { refreshToken: getRefreshToken() }).catch(() => {});
+            clearAuth();
             localStorage.removeItem('userRole');
             window.location.href = '/login';
           }}
@@ -10,8 +10,23 @@ export function getAuthToken(): string | null {
   return localStorage.getItem('access_token');
 }
 
+export function getRefreshToken(): string | null {
+  if (typeof window === 'undefined') return null;
+  return localStorage.getItem('refresh_token');
+}
+
+// Le refresh token change à chaque appel de /api/auth/refresh (rotation)
+export function storeTokens(token: string, refreshToken?: string | null): void {
+  if (typeof window === 'undefined') return;
+  localStorage.setItem('access_token', token);
+  if (refreshToken) {
+    localStorage.setItem('refresh_token', refreshToken);
+  }
+}
+
 export function clearAuth(): void {
   if (typeof window === 'undefined') return;
   localStorage.removeItem('access_token');
+  localStorage.removeItem('refresh_token');
   localStorage.removeItem('user_role');
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 // typescript
 import axios from 'axios';
 import type { InternalAxiosRequestConfig, AxiosError, AxiosResponse } from 'axios';
+import { clearAuth, getRefreshToken, storeTokens } from '@/lib/auth-utils';
 
 // Utiliser 127.0.0.1 au lieu de localhost pour éviter les problèmes de résolution IPv4/IPv6
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://127.0.0.1:8086';
@@ -25,10 +26,36 @@ api.interceptors.request.use((config: InternalAxiosRequestConfig) => {
   return config;
 });
 
+// Un seul appel de refresh à la fois : les 401 simultanés attendent le même résultat
+let refreshing: Promise<string> | null = null;
+
+function refreshAccessToken(): Promise<string> {
+  if (!refreshing) {
+    const refreshToken = getRefreshToken();
+    refreshing = (refreshToken
+      ? axios
+          .post(`${API_BASE_URL}/api/auth/refresh`, { refreshToken }, { timeout: 10000 })
+          .then((response) => {
+            storeTokens(response.data.token, response.data.refreshToken);
+            return response.data.token as string;
+          })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshing = null;
+    });
+  }
+  return refreshing;
+}
+
+// Un 401 sur ces appels est un vrai refus, pas un token expiré
+const NO_REFRESH_URLS = ['/api/auth/login', '/api/auth/refresh', '/api/auth/logout'];
+
+type RetriableRequestConfig = InternalAxiosRequestConfig & { _retried?: boolean };
+
 // Intercepteur pour gérer les erreurs globales (plus robuste)
 api.interceptors.response.use(
   (response: AxiosResponse) => response,
-  (error: AxiosError) => {
+  async (error: AxiosError) => {
     const status = error.response?.status;
     const data = error.response?.data as any; // Cast explicite pour éviter les erreurs de type
 
@@ -42,8 +69,21 @@ api.interceptors.response.use(
     }
 
     if (status === 401 && typeof window !== 'undefined') {
+      // Token d'accès expiré : un seul nouvel essai après refresh
+      const original = error.config as RetriableRequestConfig | undefined;
+      if (original && !original._retried && !NO_REFRESH_URLS.includes(original.url ?? '')) {
+        original._retried = true;
+        try {
+          const token = await refreshAccessToken();
+          original.headers.set('Authorization', `Bearer ${token}`);
+          return api(original);
+        } catch {
+          // Refresh refusé ou absent : retour à la connexion
+        }
+      }
+
       // Token expiré ou invalide
-      localStorage.removeItem('access_token');
+      clearAuth();
       // redirection côté client vers login si on n'y est pas déjà
       if (!window.location.pathname.startsWith('/login')) {
         window.location.href = '/login';